@@ -1,6 +1,8 @@
-import controllers.RouteCalculator;
+import controllers.RoutePlanner;
 import controllers.Scheduler;
 import controllers.Statistics;
+import controllers.strategies.RouteStrategy;
+import controllers.strategies.RouteStrategySelector;
 import data.ComplaintDB;
 import data.EmployeeDB;
 import data.HomeDB;
@@ -9,11 +11,18 @@ import models.Employee;
 import models.Route;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Scanner;
+import java.util.concurrent.ForkJoinPool;
 import java.util.regex.Pattern;
 
 public class Main {
 
+    /**
+     * Time each schedule route may take. Used to choose the route strategy.
+     */
+    private static final long ROUTE_BUDGET_MILLIS = 1000;
+
     /**
      * Interface to read user input from the System.in stream.
      */
@@ -120,36 +129,41 @@ public class Main {
 
     /**
      * Creates routes for all employee schedules.
-     * User chooses the algorithm used to create the routes.
+     * User chooses the strategy used to create the routes, or lets it be chosen by the amount of stops.
+     * The routes are calculated at the same time and printed as soon as they're done.
      */
     private void createScheduleRoutes() {
-        System.out.println(
-                "1) Good route with fast calculation\n" +
-                "2) Perfect route with slow calculation");
-        int calcType = askNumber();
+        ArrayList<RouteStrategy> strategies = RouteStrategySelector.instance.getStrategies();
+        System.out.println("0) Automatic choice based on the amount of stops");
+        for (int i = 0; i < strategies.size(); i++) {
+            System.out.println((i + 1) + ") " + strategies.get(i).getName());
+        }
+        int choice = askNumber();
+        RouteStrategy strategy = choice >= 1 && choice <= strategies.size() ? strategies.get(choice - 1) : null;
 
         for (Employee employee : EmployeeDB.instance.values()) {
-            if (employee.getSchedule() == null) {
-                System.out.println(employee.getName() + " doesn't have a schedule");
-                System.out.println("================");
-                continue;
-            }
+            if (employee.getSchedule() != null) continue;
 
-            Route route;
-            switch (calcType) {
-                case 1:
-                    route = RouteCalculator.getRouteKruskal(employee.getSchedule());
-                    break;
-                default:
-                    route = RouteCalculator.getRouteBruteforce(employee.getSchedule());
-            }
-
-//            Visualizer.drawRoute(route);
-
-            System.out.println(employee.getName());
-            System.out.print(route);
+            System.out.println(employee.getName() + " doesn't have a schedule");
             System.out.println("================");
         }
+
+        RoutePlanner.planRoutes(EmployeeDB.instance.values(), strategy, ROUTE_BUDGET_MILLIS, ForkJoinPool.commonPool(),
+                plannedRoute -> {
+                    Employee employee = plannedRoute.getEmployee();
+                    Route route = plannedRoute.getRoute();
+                    if (strategy != null && !strategy.getName().equals(plannedRoute.getStrategyName())) {
+                        System.out.println(strategy.getName() + " can't handle " +
+                                employee.getSchedule().size() + " stops");
+                    }
+
+//                    Visualizer.drawRoute(route);
+
+                    System.out.println(employee.getName() + " (" + plannedRoute.getStrategyName() + ")");
+                    System.out.print(route);
+                    if (route != null) System.out.println("Distance: " + route.calcTotalDistance());
+                    System.out.println("================");
+                });
     }
 
     /**
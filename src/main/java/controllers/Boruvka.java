@@ -0,0 +1,132 @@
+package controllers;
+
+import models.graph.GraphEdge;
+
+import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.IntStream;
+
+/**
+ * Boruvka's algorithm for a minimum spanning forest, made for very big graphs on multiple cores.
+ * Every node starts as its own component. Each round, every component picks its cheapest edge to another component
+ * and all those edges are added at once. The amount of components at least halves every round,
+ * so there are at most log n rounds.
+ * Finding the cheapest edges is done in parallel over the edges: each edge lowers the cheapest edge of both its
+ * components with a compare and set. Edges are compared by distance and then by their index, so no two edges
+ * are equal and the edges picked in a round can never make a loop.
+ * The picked edges are merged in parallel too, with a ConcurrentUnionFind.
+ *
+ * @see RouteCalculator#calcMinimumSpanningTree
+ */
+public class Boruvka {
+
+    private static final long NONE = Long.MAX_VALUE;
+
+    private final int size;
+    private final ArrayList<GraphEdge> edges;
+    private final int[] nodes1;
+    private final int[] nodes2;
+    private final int[] distances;
+
+    /**
+     * The component of each node: the root of its set in sets at the start of the round.
+     */
+    private final int[] components;
+    private final ConcurrentUnionFind sets;
+
+
+    /**
+     * @param size  Amount of nodes. The edge indexes should be lower than this.
+     * @param edges The edges the tree can be made of.
+     */
+    public Boruvka(int size, ArrayList<GraphEdge> edges) {
+        assert (size >= 0) : "Size shouldn't be negative";
+        assert (edges != null) : "Edges shouldn't be null";
+
+        this.size = size;
+        this.edges = edges;
+        nodes1 = new int[edges.size()];
+        nodes2 = new int[edges.size()];
+        distances = new int[edges.size()];
+        for (int i = 0; i < edges.size(); i++) {
+            GraphEdge edge = edges.get(i);
+            assert (edge.index2 < size) : "Edge index is out of bounds";
+
+            nodes1[i] = edge.index1;
+            nodes2[i] = edge.index2;
+            distances[i] = edge.distance;
+        }
+
+        components = new int[size];
+        for (int i = 0; i < size; i++) {
+            components[i] = i;
+        }
+        sets = new ConcurrentUnionFind(size);
+    }
+
+
+    /**
+     * Makes the tree. Nodes that aren't connected by the edges end up in separate trees.
+     *
+     * @return The tree edges.
+     */
+    public ArrayList<GraphEdge> calcTree() {
+        // Whether each edge is in the tree.
+        AtomicIntegerArray added = new AtomicIntegerArray(nodes1.length);
+        AtomicLongArray cheapest = new AtomicLongArray(size);
+        while (true) {
+            for (int i = 0; i < size; i++) {
+                cheapest.set(i, NONE);
+            }
+            findCheapestEdges(cheapest);
+
+            boolean merged = IntStream.range(0, size).parallel()
+                    .map(component -> {
+                        long packed = cheapest.get(component);
+                        if (packed == NONE) return 0;
+
+                        // Both components can pick the same edge, only the first union adds it.
+                        int edge = (int) packed;
+                        if (!sets.union(nodes1[edge], nodes2[edge])) return 0;
+
+                        added.set(edge, 1);
+                        return 1;
+                    })
+                    .sum() > 0;
+            if (!merged) break;
+
+            IntStream.range(0, size).parallel().forEach(node -> components[node] = sets.find(node));
+        }
+
+        // Collected in edge order, so the result doesn't depend on the thread timing.
+        ArrayList<GraphEdge> result = new ArrayList<>(Math.max(size - 1, 0));
+        for (int edge = 0; edge < nodes1.length; edge++) {
+            if (added.get(edge) == 1) result.add(edges.get(edge));
+        }
+        return result;
+    }
+
+    /**
+     * Saves the cheapest edge of every component to another component in cheapest, packed as distance << 32 | edge.
+     */
+    private void findCheapestEdges(AtomicLongArray cheapest) {
+        IntStream.range(0, nodes1.length).parallel().forEach(edge -> {
+            int component1 = components[nodes1[edge]];
+            int component2 = components[nodes2[edge]];
+            if (component1 == component2) return;
+
+            long packed = (long) distances[edge] << 32 | edge;
+            lower(cheapest, component1, packed);
+            lower(cheapest, component2, packed);
+        });
+    }
+
+    private static void lower(AtomicLongArray array, int index, long value) {
+        long current = array.get(index);
+        while (value < current && !array.compareAndSet(index, current, value)) {
+            current = array.get(index);
+        }
+    }
+
+}
@@ -0,0 +1,274 @@
+package controllers;
+
+import models.graph.DistanceMatrix;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Exact route search that skips every partial route that can't beat the best full route found so far.
+ * The top levels of the search tree are split over a ForkJoinPool. All tasks share the best distance.
+ * The search can be stopped early, in which case the best route found so far is used.
+ *
+ * @see RouteCalculator#getRouteBranchAndBound
+ */
+class BranchAndBound {
+
+    /**
+     * Amount of search tree levels that are split into separate tasks.
+     * Deeper levels are searched sequentially by the task that reached them.
+     */
+    private static final int SPLIT_DEPTH = 2;
+
+    /**
+     * Amount of nodes, including the home node at index 0.
+     */
+    private final int size;
+    private final DistanceMatrix distances;
+    /**
+     * For each node, all other nodes sorted by their distance to it.
+     * Children are searched in this order so good routes are found early.
+     */
+    private final int[][] nearest;
+    /**
+     * All edges between stops (so without the home node), sorted by smallest to biggest distance.
+     * Each edge is packed as distance << 32 | node1 << 16 | node2.
+     */
+    private final long[] sortedEdges;
+
+    private final AtomicInteger bestDistance = new AtomicInteger(Integer.MAX_VALUE);
+    private int[] bestOrder;
+
+    private BooleanSupplier stop = () -> false;
+    /**
+     * Whether the search was stopped before it could check all routes.
+     */
+    private volatile boolean stopped = false;
+
+
+    /**
+     * @param distances The distances between the nodes, including the home node at index 0.
+     *                  Can't have more than 64 nodes.
+     */
+    BranchAndBound(DistanceMatrix distances) {
+        assert (distances != null) : "Distances shouldn't be null";
+        assert (distances.getSize() >= 1 && distances.getSize() <= 64) : "Size should be between 1 and 64";
+
+        size = distances.getSize();
+        this.distances = distances;
+
+        nearest = new int[size][];
+        for (int i = 0; i < size; i++) {
+            nearest[i] = sortByDistance(i);
+        }
+
+        sortedEdges = new long[(size - 1) * (size - 2) / 2];
+        int edge = 0;
+        for (int i = 1; i < size; i++) {
+            for (int j = i + 1; j < size; j++) {
+                sortedEdges[edge++] = (long) distances.get(i, j) << 32 | i << 16 | j;
+            }
+        }
+        Arrays.sort(sortedEdges);
+    }
+
+    /**
+     * All nodes except the given node, sorted by their distance to it.
+     */
+    private int[] sortByDistance(int from) {
+        ArrayList<Integer> others = new ArrayList<>(size - 1);
+        for (int i = 0; i < size; i++) {
+            if (i != from) others.add(i);
+        }
+        others.sort(Comparator.comparingInt(other -> distances.get(from, other)));
+        return others.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+
+    /**
+     * Searches the optimal order to visit the nodes in.
+     *
+     * @param initialOrder A known order (home node excluded) whose distance is used as the first bound.
+     *                     The closer it is to the optimal distance, the more can be skipped from the start.
+     * @return Node indexes in the order to visit them. Doesn't include the home node.
+     */
+    int[] search(int[] initialOrder) {
+        return search(initialOrder, () -> false);
+    }
+
+    /**
+     * Searches the optimal order to visit the nodes in until the search is done or stop returns true.
+     * The order is only optimal if the search wasn't stopped.
+     *
+     * @param initialOrder A known order (home node excluded) whose distance is used as the first bound.
+     * @param stop         Checked before each partial route. Should be thread safe, since it's called from all tasks.
+     * @return Node indexes in the order to visit them. Doesn't include the home node.
+     * @see #isStopped
+     */
+    int[] search(int[] initialOrder, BooleanSupplier stop) {
+        assert (initialOrder != null) : "InitialOrder shouldn't be null";
+        assert (initialOrder.length == size - 1) : "InitialOrder should contain every stop";
+        assert (stop != null) : "Stop shouldn't be null";
+
+        this.stop = stop;
+        stopped = false;
+        bestOrder = initialOrder.clone();
+        bestDistance.set(distances.calcOrderDistance(bestOrder));
+        if (size <= 2) return bestOrder;
+
+        ForkJoinPool.commonPool().invoke(new Task(new int[size - 1], 0, 0, 1L, 0));
+        return bestOrder;
+    }
+
+    /**
+     * Whether the last search was stopped before it was done, so its order might not be optimal.
+     */
+    boolean isStopped() {
+        return stopped;
+    }
+
+    private boolean shouldStop() {
+        if (!stopped && stop.getAsBoolean()) stopped = true;
+        return stopped;
+    }
+
+    /**
+     * Saves the path as the best order if it's shorter than the current best.
+     */
+    private synchronized void offer(int[] path, int distance) {
+        if (distance >= bestDistance.get()) return;
+
+        bestOrder = path.clone();
+        bestDistance.set(distance);
+    }
+
+
+    /**
+     * Lowest distance a route could still have when it's at the current node and still has to visit the unvisited nodes.
+     * The remaining route goes from the current node, through all unvisited nodes, to the home node.
+     * Without its first and last edge, that's a tree over the unvisited nodes, so it can't be shorter than their MST.
+     * The first and last edge can't be shorter than the closest unvisited node to the current and home node.
+     *
+     * @param visited Bitmask of the visited nodes. Bit 0 (home) should always be set.
+     * @param unionFind Union find over all nodes to reuse. It's reset first.
+     */
+    private int calcLowerBound(int current, long visited, IndexUnionFind unionFind) {
+        int unvisitedCount = size - Long.bitCount(visited);
+        int bound = distances.get(current, closestUnvisited(current, visited)) +
+                distances.get(0, closestUnvisited(0, visited));
+
+        // Kruskal over the unvisited nodes, like calcRouteKruskal does with the graph edges.
+        // 1. Make a set for each node.
+        unionFind.reset();
+        int edgesLeft = unvisitedCount - 1;
+        // 2. Loop through the edges from shortest to longest, until the tree is complete.
+        for (int i = 0; i < sortedEdges.length && edgesLeft > 0; i++) {
+            long edge = sortedEdges[i];
+            int node1 = (int) (edge >> 16) & 0xFFFF;
+            int node2 = (int) edge & 0xFFFF;
+            if ((visited & (1L << node1)) != 0 || (visited & (1L << node2)) != 0) continue;
+
+            // 3. Unite the sets of the edge nodes.
+            // 4. Add its distance if the nodes were in different sets. Otherwise it would make a loop.
+            if (unionFind.union(node1, node2)) {
+                bound += (int) (edge >>> 32);
+                edgesLeft--;
+            }
+        }
+
+        return bound;
+    }
+
+    private int closestUnvisited(int node, long visited) {
+        for (int other : nearest[node]) {
+            if ((visited & (1L << other)) == 0) return other;
+        }
+        throw new IllegalStateException("All nodes are visited");
+    }
+
+
+    /**
+     * Searches all routes that start with the given path.
+     * Forks a task per child while the depth is lower than SPLIT_DEPTH.
+     */
+    private class Task extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int[] path;
+        private final int depth;
+        private final int current;
+        private final long visited;
+        private final int distance;
+
+
+        /**
+         * @param path     The stops visited so far. Only the first depth elements are used.
+         * @param depth    Amount of stops visited so far.
+         * @param current  The node the path ends at.
+         * @param visited  Bitmask of the visited nodes, including the home node.
+         * @param distance Distance of the path, starting from the home node.
+         */
+        Task(int[] path, int depth, int current, long visited, int distance) {
+            this.path = path;
+            this.depth = depth;
+            this.current = current;
+            this.visited = visited;
+            this.distance = distance;
+        }
+
+
+        @Override
+        protected void compute() {
+            if (shouldStop()) return;
+            if (depth >= SPLIT_DEPTH) {
+                // Each sequential search has its own path and union find, so nothing is shared but the bound.
+                searchLoop(path.clone(), depth, current, visited, distance, new IndexUnionFind(size));
+                return;
+            }
+            if (distance + calcLowerBound(current, visited, new IndexUnionFind(size)) >= bestDistance.get()) return;
+
+            ArrayList<Task> tasks = new ArrayList<>();
+            for (int next : nearest[current]) {
+                if ((visited & (1L << next)) != 0) continue;
+
+                int[] newPath = path.clone();
+                newPath[depth] = next;
+                tasks.add(new Task(newPath, depth + 1, next, visited | (1L << next),
+                        distance + distances.get(current, next)));
+            }
+            invokeAll(tasks);
+        }
+
+        /**
+         * Recursive depth first search below the split depth.
+         */
+        private void searchLoop(int[] path, int depth, int current, long visited, int distance,
+                                IndexUnionFind unionFind) {
+            if (depth == size - 1) {
+                offer(path, distance + distances.get(current, 0));
+                return;
+            }
+
+            if (shouldStop()) return;
+            if (distance + calcLowerBound(current, visited, unionFind) >= bestDistance.get()) return;
+
+            for (int next : nearest[current]) {
+                if ((visited & (1L << next)) != 0) continue;
+
+                int newDistance = distance + distances.get(current, next);
+                if (newDistance >= bestDistance.get()) continue;
+
+                path[depth] = next;
+                searchLoop(path, depth + 1, next, visited | (1L << next), newDistance, unionFind);
+            }
+        }
+
+    }
+
+}
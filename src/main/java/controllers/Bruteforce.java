@@ -0,0 +1,156 @@
+package controllers;
+
+import models.graph.DistanceMatrix;
+
+import java.util.ArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tries every order to visit the nodes in. Partial routes that are already longer than the best full route are skipped.
+ * The top levels of the permutation tree are split over a ForkJoinPool. All tasks share the best distance.
+ *
+ * @see RouteCalculator#getRouteBruteforce
+ */
+class Bruteforce {
+
+    /**
+     * Amount of permutation tree levels that are split into separate tasks.
+     * Deeper levels are searched sequentially by the task that reached them.
+     */
+    private static final int SPLIT_DEPTH = 2;
+
+    /**
+     * Amount of nodes, including the home node at index 0.
+     */
+    private final int size;
+    private final DistanceMatrix distances;
+
+    private final AtomicInteger bestDistance = new AtomicInteger(Integer.MAX_VALUE);
+    private int[] bestOrder;
+
+
+    /**
+     * @param distances The distances between the nodes, including the home node at index 0.
+     */
+    Bruteforce(DistanceMatrix distances) {
+        assert (distances != null) : "Distances shouldn't be null";
+        assert (distances.getSize() >= 1) : "Distances should at least have the home node";
+
+        size = distances.getSize();
+        this.distances = distances;
+    }
+
+
+    /**
+     * Searches the optimal order to visit the nodes in.
+     *
+     * @return Node indexes in the order to visit them. Doesn't include the home node.
+     */
+    int[] search() {
+        // The first permutation: every stop in index order.
+        int[] order = new int[size - 1];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i + 1;
+        }
+
+        bestOrder = order.clone();
+        bestDistance.set(distances.calcOrderDistance(order));
+        if (size <= 2) return bestOrder;
+
+        ForkJoinPool.commonPool().invoke(new Task(order, 0, 0, 0));
+        return bestOrder;
+    }
+
+    /**
+     * Saves the order as the best order if it's shorter than the current best.
+     */
+    private synchronized void offer(int[] order, int distance) {
+        if (distance >= bestDistance.get()) return;
+
+        bestOrder = order.clone();
+        bestDistance.set(distance);
+    }
+
+
+    /**
+     * Searches all orders that start with the given stops.
+     * Forks a task per choice of the next stop while the depth is lower than SPLIT_DEPTH.
+     */
+    private class Task extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int[] order;
+        private final int depth;
+        private final int current;
+        private final int distance;
+
+
+        /**
+         * @param order    The first depth elements are the stops visited so far, in order.
+         *                 The rest are the stops that are left, in any order.
+         * @param depth    Amount of stops visited so far.
+         * @param current  The node the visited stops end at.
+         * @param distance Distance of the visited stops, starting from the home node.
+         */
+        Task(int[] order, int depth, int current, int distance) {
+            this.order = order;
+            this.depth = depth;
+            this.current = current;
+            this.distance = distance;
+        }
+
+
+        @Override
+        protected void compute() {
+            if (depth >= SPLIT_DEPTH) {
+                // Each sequential search has its own order array, so nothing is shared but the best distance.
+                searchLoop(order.clone(), depth, current, distance);
+                return;
+            }
+
+            ArrayList<Task> tasks = new ArrayList<>();
+            for (int i = depth; i < order.length; i++) {
+                int next = order[i];
+                int newDistance = distance + distances.get(current, next);
+                if (newDistance >= bestDistance.get()) continue;
+
+                int[] newOrder = order.clone();
+                swap(newOrder, depth, i);
+                tasks.add(new Task(newOrder, depth + 1, next, newDistance));
+            }
+            invokeAll(tasks);
+        }
+
+        /**
+         * Recursive depth first search below the split depth.
+         * Stops are swapped into place and back, so the order array is the only state.
+         */
+        private void searchLoop(int[] order, int depth, int current, int distance) {
+            if (depth == order.length) {
+                offer(order, distance + distances.get(current, 0));
+                return;
+            }
+
+            for (int i = depth; i < order.length; i++) {
+                int next = order[i];
+                int newDistance = distance + distances.get(current, next);
+                if (newDistance >= bestDistance.get()) continue;
+
+                swap(order, depth, i);
+                searchLoop(order, depth + 1, next, newDistance);
+                swap(order, depth, i);
+            }
+        }
+
+    }
+
+    private static void swap(int[] array, int index1, int index2) {
+        int temp = array[index1];
+        array[index1] = array[index2];
+        array[index2] = temp;
+    }
+
+}
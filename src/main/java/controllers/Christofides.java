@@ -0,0 +1,252 @@
+package controllers;
+
+import models.graph.DistanceMatrix;
+
+import java.util.Arrays;
+
+/**
+ * Makes a tour from a minimum spanning tree like the Christofides algorithm does:
+ * 1. Match the nodes with an odd amount of tree edges in pairs and add an edge between each pair.
+ * 2. Every node has an even amount of edges now, so there's a path that uses each edge once (an Euler tour).
+ * 3. Walk the Euler tour and skip nodes that were already visited.
+ * Christofides uses a minimum weight perfect matching, which is O(n^3). A greedy matching is used instead.
+ * That makes the tour a bit longer, but it's still a much better start for local search than walking the tree.
+ *
+ * @see RouteCalculator#getRouteChristofides
+ */
+class Christofides {
+
+    /**
+     * Amount of closest odd nodes per odd node that are considered as match.
+     * Nodes that can't be matched to one of them are matched afterwards to the closest node left.
+     */
+    private static final int MATCH_CANDIDATES = 10;
+
+    private final int size;
+    private final DistanceMatrix distances;
+
+    /**
+     * Both ends of every edge: the tree edges, followed by the matching edges.
+     */
+    private final int[] edgeNodes1;
+    private final int[] edgeNodes2;
+    private int edgeCount;
+
+
+    /**
+     * @param distances  The distances between the nodes, including the home node at index 0.
+     * @param treeNodes1 The first node of each tree edge.
+     * @param treeNodes2 The second node of each tree edge.
+     */
+    Christofides(DistanceMatrix distances, int[] treeNodes1, int[] treeNodes2) {
+        assert (distances != null) : "Distances shouldn't be null";
+        assert (treeNodes1 != null) : "TreeNodes1 shouldn't be null";
+        assert (treeNodes2 != null) : "TreeNodes2 shouldn't be null";
+        assert (treeNodes1.length == treeNodes2.length) : "TreeNodes1 and treeNodes2 should have the same length";
+
+        size = distances.getSize();
+        this.distances = distances;
+
+        // A tree has at most size - 1 edges and the matching adds at most size / 2.
+        edgeNodes1 = Arrays.copyOf(treeNodes1, treeNodes1.length + size / 2 + 1);
+        edgeNodes2 = Arrays.copyOf(treeNodes2, edgeNodes1.length);
+        edgeCount = treeNodes1.length;
+    }
+
+
+    /**
+     * Makes the tour. Nodes that aren't connected to the home node by the tree are added to the end.
+     *
+     * @return The node indexes in the order to visit them, starting with the home node.
+     */
+    int[] calcTour() {
+        if (size == 0) return new int[0];
+
+        addMatching(findOddNodes());
+        return shortcut(calcEulerTour());
+    }
+
+
+    private int[] findOddNodes() {
+        int[] degrees = new int[size];
+        for (int i = 0; i < edgeCount; i++) {
+            degrees[edgeNodes1[i]]++;
+            degrees[edgeNodes2[i]]++;
+        }
+
+        int oddCount = 0;
+        for (int degree : degrees) {
+            if (degree % 2 == 1) oddCount++;
+        }
+        int[] odd = new int[oddCount];
+        int index = 0;
+        for (int node = 0; node < size; node++) {
+            if (degrees[node] % 2 == 1) odd[index++] = node;
+        }
+
+        // Each tree edge adds 2 to the total degree, so the amount of odd nodes is always even.
+        assert (oddCount % 2 == 0) : "Amount of odd nodes isn't even";
+        return odd;
+    }
+
+    /**
+     * Matches the odd nodes in pairs with a greedy matching and adds an edge between each pair.
+     * Candidate pairs (each odd node with its closest odd nodes) are taken from shortest to longest,
+     * skipping pairs of which a node was already matched.
+     *
+     * @param odd The nodes with an odd amount of edges.
+     */
+    private void addMatching(int[] odd) {
+        int oddCount = odd.length;
+        if (oddCount == 0) return;
+
+        // Each candidate pair is packed as distance << 32 | odd index * candidates + candidate.
+        int candidates = Math.min(MATCH_CANDIDATES, oddCount - 1);
+        int[] partners = new int[oddCount * candidates];
+        long[] pairs = new long[oddCount * candidates];
+        int[] bestDistances = new int[candidates];
+        for (int a = 0; a < oddCount; a++) {
+            int offset = a * candidates;
+            int found = 0;
+            for (int b = 0; b < oddCount; b++) {
+                if (b == a) continue;
+
+                int distance = distances.get(odd[a], odd[b]);
+                if (found == candidates && distance >= bestDistances[found - 1]) continue;
+
+                // Shift the further candidates one place to make room, dropping the furthest if the list is full.
+                int i = found == candidates ? found - 1 : found++;
+                while (i > 0 && bestDistances[i - 1] > distance) {
+                    bestDistances[i] = bestDistances[i - 1];
+                    partners[offset + i] = partners[offset + i - 1];
+                    i--;
+                }
+                bestDistances[i] = distance;
+                partners[offset + i] = b;
+            }
+            for (int i = 0; i < candidates; i++) {
+                pairs[offset + i] = (long) bestDistances[i] << 32 | (offset + i);
+            }
+        }
+        Arrays.sort(pairs);
+
+        boolean[] matched = new boolean[oddCount];
+        int matchedCount = 0;
+        for (long pair : pairs) {
+            int candidate = (int) pair;
+            int a = candidate / candidates;
+            int b = partners[candidate];
+            if (matched[a] || matched[b]) continue;
+
+            matched[a] = true;
+            matched[b] = true;
+            matchedCount += 2;
+            addEdge(odd[a], odd[b]);
+        }
+
+        // Match the nodes whose candidates were all taken to the closest node that's left.
+        for (int a = 0; a < oddCount && matchedCount < oddCount; a++) {
+            if (matched[a]) continue;
+
+            int closest = -1;
+            int closestDistance = Integer.MAX_VALUE;
+            for (int b = a + 1; b < oddCount; b++) {
+                if (matched[b]) continue;
+
+                int distance = distances.get(odd[a], odd[b]);
+                if (distance < closestDistance) {
+                    closestDistance = distance;
+                    closest = b;
+                }
+            }
+
+            assert (closest != -1) : "Odd node is left without a match";
+            matched[a] = true;
+            matched[closest] = true;
+            matchedCount += 2;
+            addEdge(odd[a], odd[closest]);
+        }
+    }
+
+    private void addEdge(int node1, int node2) {
+        edgeNodes1[edgeCount] = node1;
+        edgeNodes2[edgeCount] = node2;
+        edgeCount++;
+    }
+
+
+    /**
+     * Walks every edge that can be reached from the home node once with Hierholzer's algorithm.
+     * Follows unused edges until it gets stuck, which can only happen at the start node of the current circuit.
+     * Then it backtracks until a node with unused edges, where a new circuit is started and spliced in.
+     *
+     * @return The nodes in the order they're walked. The home node is at the start and the end.
+     */
+    private int[] calcEulerTour() {
+        // Edges of each node: the edges of node i are at offsets[i] to offsets[i + 1] in nodeEdges.
+        int[] offsets = new int[size + 1];
+        for (int i = 0; i < edgeCount; i++) {
+            offsets[edgeNodes1[i] + 1]++;
+            offsets[edgeNodes2[i] + 1]++;
+        }
+        for (int i = 0; i < size; i++) {
+            offsets[i + 1] += offsets[i];
+        }
+        int[] nodeEdges = new int[edgeCount * 2];
+        int[] filled = Arrays.copyOf(offsets, size);
+        for (int i = 0; i < edgeCount; i++) {
+            nodeEdges[filled[edgeNodes1[i]]++] = i;
+            nodeEdges[filled[edgeNodes2[i]]++] = i;
+        }
+
+        // The next edge to check for each node. Edges before it are used already.
+        int[] next = Arrays.copyOf(offsets, size);
+        boolean[] used = new boolean[edgeCount];
+
+        int[] tour = new int[edgeCount + 1];
+        int tourLength = 0;
+        int[] stack = new int[edgeCount + 1];
+        int stackSize = 0;
+        stack[stackSize++] = 0;
+        while (stackSize > 0) {
+            int node = stack[stackSize - 1];
+            while (next[node] < offsets[node + 1] && used[nodeEdges[next[node]]]) next[node]++;
+
+            if (next[node] == offsets[node + 1]) {
+                // Stuck, so this node is done. Nodes are finished in reverse order, which is still an Euler tour.
+                tour[tourLength++] = node;
+                stackSize--;
+            } else {
+                int edge = nodeEdges[next[node]];
+                used[edge] = true;
+                stack[stackSize++] = edgeNodes1[edge] == node ? edgeNodes2[edge] : edgeNodes1[edge];
+            }
+        }
+
+        return Arrays.copyOf(tour, tourLength);
+    }
+
+    /**
+     * Keeps the first visit of each node in the Euler tour.
+     * Skipping a node is never longer than driving through it, so the tour doesn't get longer.
+     */
+    private int[] shortcut(int[] eulerTour) {
+        int[] tour = new int[size];
+        boolean[] added = new boolean[size];
+        int count = 0;
+        for (int node : eulerTour) {
+            if (added[node]) continue;
+
+            added[node] = true;
+            tour[count++] = node;
+        }
+
+        for (int node = 0; node < size; node++) {
+            if (!added[node]) tour[count++] = node;
+        }
+
+        assert (tour[0] == 0) : "Tour doesn't start at the home node";
+        return tour;
+    }
+
+}
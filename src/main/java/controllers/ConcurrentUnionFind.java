@@ -0,0 +1,89 @@
+package controllers;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Union find over the node indexes 0 to size - 1 that many threads can use at the same time without locks.
+ * Roots are linked with a compare and set on their parent, always from the lower to the higher index.
+ * So the parents on a path only go up, which means there are no cycles and a find always ends.
+ * Find shortens paths with path halving, also with compare and set. A failed halving is skipped instead of retried,
+ * so find never waits for other threads.
+ * For a single thread, IndexUnionFind is faster.
+ *
+ * @see IndexUnionFind
+ * @see Boruvka
+ */
+public class ConcurrentUnionFind {
+
+    private final AtomicIntegerArray parents;
+
+
+    /**
+     * Makes a set for each node.
+     */
+    public ConcurrentUnionFind(int size) {
+        assert (size >= 0) : "Size shouldn't be negative";
+
+        parents = new AtomicIntegerArray(size);
+        for (int i = 0; i < size; i++) {
+            parents.set(i, i);
+        }
+    }
+
+
+    public int size() {
+        return parents.length();
+    }
+
+    /**
+     * Gets the root of the set of the given node.
+     * The result can be outdated when another thread unites the set at the same time.
+     */
+    public int find(int node) {
+        assert (node >= 0 && node < parents.length()) : "Node is out of bounds";
+
+        while (true) {
+            int parent = parents.get(node);
+            if (parent == node) return node;
+
+            int grandparent = parents.get(parent);
+            if (grandparent == parent) return parent;
+
+            // Skip the parent. If another thread changed it first, its parent is higher up already.
+            parents.compareAndSet(node, parent, grandparent);
+            node = grandparent;
+        }
+    }
+
+    /**
+     * Unites the sets of the given nodes.
+     *
+     * @return Whether the nodes were in different sets. Only one of the threads uniting the same sets gets true.
+     */
+    public boolean union(int node1, int node2) {
+        while (true) {
+            int root1 = find(node1);
+            int root2 = find(node2);
+            if (root1 == root2) return false;
+
+            int lower = Math.min(root1, root2);
+            int higher = Math.max(root1, root2);
+            // Fails if the lower root got a parent in the meantime. Then the roots are looked up again.
+            if (parents.compareAndSet(lower, lower, higher)) return true;
+        }
+    }
+
+    /**
+     * Whether the given nodes are in the same set.
+     */
+    public boolean isSameSet(int node1, int node2) {
+        while (true) {
+            int root1 = find(node1);
+            int root2 = find(node2);
+            if (root1 == root2) return true;
+            // The roots are different as long as root1 is still a root, since roots never become roots again.
+            if (parents.get(root1) == root1) return false;
+        }
+    }
+
+}
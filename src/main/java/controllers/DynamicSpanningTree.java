@@ -0,0 +1,123 @@
+package controllers;
+
+import enums.EdgeGenerator;
+import models.graph.Graph;
+import models.graph.GraphEdge;
+import models.graph.GraphNode;
+
+import java.util.ArrayList;
+
+/**
+ * Minimum spanning tree over the octant edges of a graph that's kept up to date when nodes are inserted or removed,
+ * without making the edges or the tree again.
+ * Inserting a node can only replace tree edges by edges of the new node, so the new tree is made from the old
+ * tree edges and the edges of the new node.
+ * Removing a node splits the tree in a few parts, which are connected again with the shortest edges between them.
+ *
+ * @see Graph#insertNode
+ * @see Graph#removeNode
+ */
+public class DynamicSpanningTree {
+
+    private final Graph graph;
+    private ArrayList<GraphEdge> tree;
+
+
+    /**
+     * Makes the octant edges of the graph and the tree over them. The graph should only be changed through this tree.
+     */
+    public DynamicSpanningTree(Graph graph) {
+        assert (graph != null) : "Graph shouldn't be null";
+
+        this.graph = graph;
+        graph.createEdges(EdgeGenerator.octant);
+        tree = new ArrayList<>(graph.size());
+        addShortestEdges(graph.getEdges().values(), new IndexUnionFind(graph.size()));
+    }
+
+
+    public Graph getGraph() {
+        return graph;
+    }
+
+    /**
+     * The tree edges, in the same form as the Kruskal edge list.
+     */
+    public ArrayList<GraphEdge> getTree() {
+        return new ArrayList<>(tree);
+    }
+
+    /**
+     * Inserts the node into the graph and updates the tree.
+     *
+     * @return The index of the node at the location of the given node.
+     */
+    public int insert(GraphNode node) {
+        assert (node != null) : "Node shouldn't be null";
+
+        int size = graph.size();
+        int index = graph.insertNode(node);
+        if (graph.size() == size) return index;
+
+        // A shorter tree can only use edges of the new node, so the old tree edges are the only other candidates.
+        ArrayList<GraphEdge> candidates = new ArrayList<>(tree);
+        candidates.addAll(graph.getNodeEdges(index));
+        tree = new ArrayList<>(graph.size());
+        addShortestEdges(candidates, new IndexUnionFind(graph.size()));
+        return index;
+    }
+
+    /**
+     * Removes the node at the given index from the graph and updates the tree.
+     * The last node takes the place of the removed node, like Graph.removeNode.
+     */
+    public void remove(int index) {
+        int last = graph.size() - 1;
+        graph.removeNode(index);
+
+        // The tree edges of other nodes stay. The edges of the last node get its new index.
+        ArrayList<GraphEdge> kept = new ArrayList<>(graph.size());
+        for (GraphEdge edge : tree) {
+            if (edge.index1 == index || edge.index2 == index) continue;
+
+            if (edge.index2 == last) {
+                kept.add(new GraphEdge(edge.node1, edge.index1, edge.node2, index, edge.distance));
+            } else {
+                kept.add(edge);
+            }
+        }
+
+        IndexUnionFind unionFind = new IndexUnionFind(graph.size());
+        for (GraphEdge edge : kept) {
+            unionFind.union(edge.index1, edge.index2);
+        }
+        tree = kept;
+
+        // Connect the parts again with the shortest edges between them.
+        ArrayList<GraphEdge> candidates = new ArrayList<>();
+        for (GraphEdge edge : graph.getEdges().values()) {
+            if (unionFind.find(edge.index1) != unionFind.find(edge.index2)) candidates.add(edge);
+        }
+        addShortestEdges(candidates, unionFind);
+    }
+
+    /**
+     * Adds the candidate edges to the tree from shortest to longest, like Kruskal, skipping edges that make a loop.
+     *
+     * @param unionFind The sets of the nodes that are connected by the tree so far.
+     */
+    private void addShortestEdges(ArrayList<GraphEdge> candidates, IndexUnionFind unionFind) {
+        int[] distances = new int[candidates.size()];
+        for (int i = 0; i < candidates.size(); i++) {
+            distances[i] = candidates.get(i).distance;
+        }
+
+        for (int i : RadixSort.sortIndexes(distances)) {
+            if (tree.size() >= graph.size() - 1) break;
+
+            GraphEdge edge = candidates.get(i);
+            if (unionFind.union(edge.index1, edge.index2)) tree.add(edge);
+        }
+    }
+
+}
@@ -0,0 +1,90 @@
+package controllers;
+
+/**
+ * Union find over the node indexes 0 to size - 1, kept in a parent and a rank array.
+ * Like UnionFind, but without an object per node, so Kruskal runs on contiguous memory.
+ * Find compresses the whole path, so every node on it gets the root as parent.
+ *
+ * @see UnionFind
+ */
+public class IndexUnionFind {
+
+    /**
+     * Parent of each node. A node is the root of its set if it's its own parent.
+     */
+    private final int[] parents;
+    /**
+     * Upper bound of the height of each root's tree. Only used to decide which way to union.
+     * Stays below 32 (the log of the amount of nodes), so it fits in a byte.
+     */
+    private final byte[] ranks;
+
+
+    /**
+     * Makes a set for each node.
+     */
+    public IndexUnionFind(int size) {
+        assert (size >= 0) : "Size shouldn't be negative";
+
+        parents = new int[size];
+        ranks = new byte[size];
+        reset();
+    }
+
+
+    public int size() {
+        return parents.length;
+    }
+
+    /**
+     * Makes a set for each node again, so the arrays can be reused.
+     */
+    public void reset() {
+        for (int i = 0; i < parents.length; i++) {
+            parents[i] = i;
+            ranks[i] = 0;
+        }
+    }
+
+    /**
+     * Gets the root of the set of the given node.
+     */
+    public int find(int node) {
+        assert (node >= 0 && node < parents.length) : "Node is out of bounds";
+
+        int root = node;
+        while (parents[root] != root) {
+            root = parents[root];
+        }
+
+        // Point every node on the path straight to the root.
+        while (parents[node] != root) {
+            int parent = parents[node];
+            parents[node] = root;
+            node = parent;
+        }
+
+        return root;
+    }
+
+    /**
+     * Unites the sets of the given nodes.
+     * The root with the lowest rank gets the other root as parent. Only a tie makes the tree higher.
+     *
+     * @return Whether the nodes were in different sets.
+     */
+    public boolean union(int node1, int node2) {
+        int root1 = find(node1);
+        int root2 = find(node2);
+        if (root1 == root2) return false;
+
+        if (ranks[root1] < ranks[root2]) {
+            parents[root1] = root2;
+        } else {
+            parents[root2] = root1;
+            if (ranks[root1] == ranks[root2]) ranks[root1]++;
+        }
+        return true;
+    }
+
+}
@@ -0,0 +1,104 @@
+package controllers;
+
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Improves a tour on several islands at the same time. Each island is a chained local search with its own random kicks,
+ * so the islands end up in different local optima.
+ * The islands run in epochs. After each epoch, an island takes over the tour of the island before it (in a ring)
+ * if that tour is shorter. Good tours spread to the other islands that way, while the islands stay apart long enough
+ * to search different parts of the tour space.
+ *
+ * @see RouteCalculator#getRouteIslands
+ */
+class IslandSearch {
+
+    /**
+     * Amount of islands. Fixed instead of based on the amount of cores, so the result doesn't depend on the machine.
+     */
+    static final int ISLANDS = 4;
+    /**
+     * Amount of kicks each island does in an epoch, before the tours migrate.
+     */
+    private static final int KICKS_PER_EPOCH = 200;
+
+    private final LocalSearch[] islands = new LocalSearch[ISLANDS];
+    private final Random[] randoms = new Random[ISLANDS];
+
+
+    /**
+     * @param start The local search to start every island from. Its tour isn't changed.
+     * @param seed  Seed of the random kicks. Island i uses seed + i.
+     */
+    IslandSearch(LocalSearch start, long seed) {
+        assert (start != null) : "Start shouldn't be null";
+
+        for (int i = 0; i < ISLANDS; i++) {
+            islands[i] = new LocalSearch(start);
+            randoms[i] = new Random(seed + i);
+        }
+    }
+
+
+    /**
+     * Runs epochs until stop returns true.
+     * Without stop cutting an epoch short, the same seed and amount of epochs always give the same tour.
+     *
+     * @return The shortest tour of all islands.
+     */
+    int[] search(BooleanSupplier stop) {
+        assert (stop != null) : "Stop shouldn't be null";
+
+        while (!stop.getAsBoolean()) {
+            runEpoch(stop);
+            migrate();
+        }
+        return getBestIsland().getTour();
+    }
+
+    /**
+     * Lets every island do KICKS_PER_EPOCH kicks on its own core and waits until all are done.
+     */
+    private void runEpoch(BooleanSupplier stop) {
+        ArrayList<ForkJoinTask<?>> tasks = new ArrayList<>(ISLANDS);
+        for (int i = 0; i < ISLANDS; i++) {
+            LocalSearch island = islands[i];
+            Random random = randoms[i];
+            tasks.add(ForkJoinTask.adapt(() -> island.optimizeChained(stop, random, KICKS_PER_EPOCH)));
+        }
+        ForkJoinPool.commonPool().invoke(ForkJoinTask.adapt(() -> {
+            ForkJoinTask.invokeAll(tasks);
+        }));
+    }
+
+    /**
+     * Gives each island the tour of the island before it in the ring, if that one is shorter.
+     * The tours are taken from before the migration, so a tour moves at most one island per epoch.
+     */
+    private void migrate() {
+        int[][] tours = new int[ISLANDS][];
+        int[] distances = new int[ISLANDS];
+        for (int i = 0; i < ISLANDS; i++) {
+            tours[i] = islands[i].getTour();
+            distances[i] = islands[i].getDistance();
+        }
+
+        for (int i = 0; i < ISLANDS; i++) {
+            int from = (i + ISLANDS - 1) % ISLANDS;
+            if (distances[from] < distances[i]) islands[i].setTour(tours[from]);
+        }
+    }
+
+    private LocalSearch getBestIsland() {
+        LocalSearch best = islands[0];
+        for (LocalSearch island : islands) {
+            if (island.getDistance() < best.getDistance()) best = island;
+        }
+        return best;
+    }
+
+}
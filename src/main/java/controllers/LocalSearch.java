@@ -0,0 +1,484 @@
+package controllers;
+
+import models.graph.DistanceMatrix;
+
+import java.util.Random;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Improves a tour with 2-opt and Or-opt moves until no move makes it shorter.
+ * Moves are only tried towards the closest neighbours of a node, which are calculated once.
+ * Nodes whose moves didn't improve anything are skipped (don't-look bits) until a neighbouring edge changes.
+ * Together this makes each pass close to linear instead of O(n^2).
+ *
+ * @see RouteCalculator#improveRoute
+ */
+class LocalSearch {
+
+    /**
+     * Amount of closest nodes per node that moves are tried towards.
+     */
+    static final int NEIGHBOURS = 8;
+    /**
+     * Maximum amount of nodes Or-opt moves at once.
+     */
+    private static final int MAX_SEGMENT = 3;
+    /**
+     * Maximum length of the 2 segments that a kick swaps.
+     * Kicks stay local so the local search after them only has to repair a small part of the tour.
+     */
+    private static final int MAX_KICK_SEGMENT = 50;
+
+    private final int size;
+    private final DistanceMatrix distances;
+    /**
+     * The closest nodes of each node, sorted by distance. The neighbours of node i start at index i * neighbourCount.
+     */
+    private final int[] neighbours;
+    private final int neighbourCount;
+
+    /**
+     * The nodes in the order they're visited. The tour goes back to the first node after the last node.
+     */
+    private final int[] tour;
+    /**
+     * Index of each node in tour.
+     */
+    private final int[] positions;
+    /**
+     * Total distance of the tour. Updated with the difference of every move.
+     */
+    private int distance;
+
+    /**
+     * Circular queue of nodes whose don't-look bit is off, so they still need to be checked for moves.
+     */
+    private final int[] queue;
+    private final boolean[] queued;
+    private int queueStart = 0;
+    private int queueCount = 0;
+
+
+    /**
+     * @param distances The distances between the nodes.
+     * @param tour      The node indexes in the order to start from. Every node should be in it once.
+     */
+    LocalSearch(DistanceMatrix distances, int[] tour) {
+        assert (distances != null) : "Distances shouldn't be null";
+        assert (tour != null) : "Tour shouldn't be null";
+        assert (distances.getSize() == tour.length) : "Distances and tour should have the same size";
+
+        size = tour.length;
+        this.distances = distances;
+        this.tour = tour.clone();
+
+        positions = new int[size];
+        for (int i = 0; i < size; i++) {
+            positions[this.tour[i]] = i;
+        }
+
+        neighbourCount = Math.min(NEIGHBOURS, size - 1);
+        neighbours = calcNeighbours();
+        distance = calcDistance();
+
+        queue = new int[size];
+        queued = new boolean[size];
+    }
+
+    /**
+     * Copies the tour of the other local search. The distances and neighbours are shared, since they never change.
+     */
+    LocalSearch(LocalSearch other) {
+        assert (other != null) : "Other shouldn't be null";
+
+        size = other.size;
+        distances = other.distances;
+        neighbours = other.neighbours;
+        neighbourCount = other.neighbourCount;
+        tour = other.tour.clone();
+        positions = other.positions.clone();
+        distance = other.distance;
+
+        queue = new int[size];
+        queued = new boolean[size];
+    }
+
+
+    int[] getTour() {
+        return tour.clone();
+    }
+
+    /**
+     * Replaces the tour, for example with a better one that was saved earlier.
+     */
+    void setTour(int[] newTour) {
+        assert (newTour != null && newTour.length == size) : "NewTour should have every node";
+
+        System.arraycopy(newTour, 0, tour, 0, size);
+        for (int i = 0; i < size; i++) {
+            positions[tour[i]] = i;
+        }
+        distance = calcDistance();
+    }
+
+    int getDistance() {
+        return distance;
+    }
+
+    int calcDistance() {
+        return distances.calcTourDistance(tour);
+    }
+
+    private int distance(int node1, int node2) {
+        return distances.get(node1, node2);
+    }
+
+    private int next(int node) {
+        int position = positions[node] + 1;
+        return tour[position == size ? 0 : position];
+    }
+
+    private int previous(int node) {
+        int position = positions[node] - 1;
+        return tour[position < 0 ? size - 1 : position];
+    }
+
+
+    /**
+     * Finds the closest nodes of each node.
+     * Each node keeps a small sorted list that closer nodes are inserted into.
+     */
+    private int[] calcNeighbours() {
+        int[] result = new int[size * neighbourCount];
+        int[] bestDistances = new int[neighbourCount];
+
+        for (int node = 0; node < size; node++) {
+            int offset = node * neighbourCount;
+            int found = 0;
+            for (int other = 0; other < size; other++) {
+                if (other == node) continue;
+
+                int distance = distance(node, other);
+                if (found == neighbourCount && distance >= bestDistances[found - 1]) continue;
+
+                // Shift the further neighbours one place to make room, dropping the furthest if the list is full.
+                int i = found == neighbourCount ? found - 1 : found++;
+                while (i > 0 && bestDistances[i - 1] > distance) {
+                    bestDistances[i] = bestDistances[i - 1];
+                    result[offset + i] = result[offset + i - 1];
+                    i--;
+                }
+                bestDistances[i] = distance;
+                result[offset + i] = other;
+            }
+        }
+
+        return result;
+    }
+
+
+    /**
+     * Keeps applying improving moves until there are none left.
+     */
+    void optimize() {
+        optimize(() -> false);
+    }
+
+    /**
+     * Keeps applying improving moves until there are none left or until stop returns true.
+     * The tour is valid after every move, so it can be used even if the search was stopped.
+     */
+    void optimize(BooleanSupplier stop) {
+        assert (stop != null) : "Stop shouldn't be null";
+
+        if (size < 4) return;
+
+        for (int node : tour) {
+            push(node);
+        }
+        optimizeQueue(stop);
+    }
+
+    /**
+     * Applies improving moves around the queued nodes until the queue is empty or until stop returns true.
+     */
+    private void optimizeQueue(BooleanSupplier stop) {
+        while (queueCount > 0 && !stop.getAsBoolean()) {
+            int node = pop();
+            if (tryTwoOpt(node) || tryOrOpt(node)) push(node);
+        }
+        assert (distance == calcDistance()) : "Tracked distance doesn't match the tour";
+    }
+
+    /**
+     * Keeps improving the tour until stop returns true. Ends with the best tour found.
+     * After the first local optimum, the tour is kicked out of it by swapping 2 segments (a double bridge move,
+     * which 2-opt and Or-opt can't undo in one move) and optimized again.
+     * If the new local optimum is worse, the search continues from the best tour.
+     * This is the same chaining that Lin-Kernighan implementations use to escape local optima.
+     *
+     * @param random Decides where the kicks happen. Use the same seed to get the same moves.
+     */
+    void optimizeChained(BooleanSupplier stop, Random random) {
+        optimizeChained(stop, random, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Same as optimizeChained(stop, random), but stops after the given amount of kicks.
+     * When stop never returns true, the same seed and amount of kicks always give the same tour.
+     */
+    void optimizeChained(BooleanSupplier stop, Random random, int maxKicks) {
+        assert (stop != null) : "Stop shouldn't be null";
+        assert (random != null) : "Random shouldn't be null";
+        assert (maxKicks >= 0) : "MaxKicks shouldn't be negative";
+
+        optimize(stop);
+        // A double bridge needs 2 segments and a node before and after them.
+        if (size < 8) return;
+
+        int[] bestTour = tour.clone();
+        int bestDistance = distance;
+        for (int kicks = 0; kicks < maxKicks && !stop.getAsBoolean(); kicks++) {
+            kick(random);
+            optimizeQueue(stop);
+
+            if (distance < bestDistance) {
+                bestTour = tour.clone();
+                bestDistance = distance;
+            } else if (distance > bestDistance) {
+                setTour(bestTour);
+            }
+        }
+
+        if (distance > bestDistance) setTour(bestTour);
+    }
+
+    /**
+     * Swaps 2 random neighbouring segments of the tour: a, b1 ... b2, c1 ... c2, d becomes a, c1 ... c2, b1 ... b2, d.
+     * The nodes at the 3 changed edges are queued for optimizeQueue.
+     */
+    private void kick(Random random) {
+        int maxLength = Math.min(MAX_KICK_SEGMENT, (size - 2) / 2);
+        int bLength = 1 + random.nextInt(maxLength);
+        int cLength = 1 + random.nextInt(maxLength);
+        int start = random.nextInt(size);
+
+        int a = tour[start];
+        int b1 = tour[(start + 1) % size];
+        int b2 = tour[(start + bLength) % size];
+        int c1 = tour[(start + bLength + 1) % size];
+        int c2 = tour[(start + bLength + cLength) % size];
+        int d = tour[(start + bLength + cLength + 1) % size];
+
+        distance += distance(a, c1) + distance(c2, b1) + distance(b2, d) -
+                distance(a, b1) - distance(b2, c1) - distance(c2, d);
+
+        // Write c and then b after a.
+        int[] segments = new int[bLength + cLength];
+        for (int i = 0; i < cLength; i++) {
+            segments[i] = tour[(start + bLength + 1 + i) % size];
+        }
+        for (int i = 0; i < bLength; i++) {
+            segments[cLength + i] = tour[(start + 1 + i) % size];
+        }
+        for (int i = 0; i < segments.length; i++) {
+            int position = (start + 1 + i) % size;
+            tour[position] = segments[i];
+            positions[segments[i]] = position;
+        }
+
+        push(a);
+        push(b1);
+        push(b2);
+        push(c1);
+        push(c2);
+        push(d);
+    }
+
+    private void push(int node) {
+        if (queued[node]) return;
+
+        queued[node] = true;
+        queue[(queueStart + queueCount) % size] = node;
+        queueCount++;
+    }
+
+    private int pop() {
+        int node = queue[queueStart];
+        queueStart = (queueStart + 1) % size;
+        queueCount--;
+        queued[node] = false;
+        return node;
+    }
+
+
+    /**
+     * Tries to replace the edge from the node to its next (or previous) node with an edge to one of its neighbours.
+     * The first improving move is applied.
+     *
+     * @return Whether the tour was changed.
+     */
+    private boolean tryTwoOpt(int a) {
+        for (int direction = 0; direction < 2; direction++) {
+            int b = direction == 0 ? next(a) : previous(a);
+            int abDistance = distance(a, b);
+
+            for (int i = a * neighbourCount; i < (a + 1) * neighbourCount; i++) {
+                int c = neighbours[i];
+                int acDistance = distance(a, c);
+                // Neighbours are sorted, so no later neighbour can make the new edge shorter than the old one either.
+                if (acDistance >= abDistance) break;
+
+                int d = direction == 0 ? next(c) : previous(c);
+                if (c == b || d == a) continue;
+
+                int delta = acDistance + distance(b, d) - abDistance - distance(c, d);
+                if (delta < 0) {
+                    makeTwoOptMove(a, b, c, d);
+                    distance += delta;
+                    push(a);
+                    push(b);
+                    push(c);
+                    push(d);
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Tries to move a segment of 1 to MAX_SEGMENT nodes that starts or ends at the node
+     * to between a neighbour of the segment ends and the node next to that neighbour.
+     * The segment can be inserted reversed. The first improving move is applied.
+     *
+     * @return Whether the tour was changed.
+     */
+    private boolean tryOrOpt(int node) {
+        for (int length = 1; length <= MAX_SEGMENT && length <= size - 3; length++) {
+            for (int direction = 0; direction < 2; direction++) {
+                // A single node segment is the same in both directions.
+                if (length == 1 && direction == 1) continue;
+
+                // The segment goes from s1 to s2 in tour order.
+                int s1 = node;
+                int s2 = node;
+                for (int i = 1; i < length; i++) {
+                    if (direction == 0) {
+                        s2 = next(s2);
+                    } else {
+                        s1 = previous(s1);
+                    }
+                }
+
+                int p = previous(s1);
+                int n = next(s2);
+                // Distance saved by taking the segment out and connecting its neighbours.
+                int removeGain = distance(p, s1) + distance(s2, n) - distance(p, n);
+                if (removeGain <= 0) continue;
+
+                for (int end = 0; end < 2; end++) {
+                    int s = end == 0 ? s1 : s2;
+                    for (int i = s * neighbourCount; i < (s + 1) * neighbourCount; i++) {
+                        int c = neighbours[i];
+                        if (distance(s, c) >= removeGain) break;
+                        if (inSegment(c, s1, s2)) continue;
+
+                        // Try the edge after and before the neighbour.
+                        for (int side = 0; side < 2; side++) {
+                            int u = side == 0 ? c : previous(c);
+                            int v = side == 0 ? next(c) : c;
+                            if (u == n || v == p || inSegment(u, s1, s2) || inSegment(v, s1, s2)) continue;
+
+                            int reversedAdd = distance(u, s2) + distance(s1, v);
+                            int forwardAdd = distance(u, s1) + distance(s2, v);
+                            int delta = Math.min(reversedAdd, forwardAdd) - distance(u, v) - removeGain;
+                            if (delta < 0) {
+                                makeOrOptMove(p, s1, s2, n, u, v, forwardAdd <= reversedAdd);
+                                distance += delta;
+                                push(p);
+                                push(s1);
+                                push(s2);
+                                push(n);
+                                push(u);
+                                push(v);
+                                return true;
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        return false;
+    }
+
+    private boolean inSegment(int node, int s1, int s2) {
+        int current = s1;
+        while (true) {
+            if (current == node) return true;
+            if (current == s2) return false;
+            current = next(current);
+        }
+    }
+
+
+    /**
+     * Replaces the edges a-b and c-d with a-c and b-d.
+     * b should be the next node of a and d the next node of c, or b the previous of a and d the previous of c.
+     */
+    private void makeTwoOptMove(int a, int b, int c, int d) {
+        if (next(a) == b) {
+            reverse(b, c);
+        } else {
+            reverse(a, d);
+        }
+    }
+
+    /**
+     * Moves the segment s1-s2 from between p and n to between u and v.
+     * Done with 2 2-opt moves, which insert the segment reversed, and a third one to turn it back if needed.
+     * In tour order (or its reverse) it should be: p, s1 ... s2, n ... u, v.
+     */
+    private void makeOrOptMove(int p, int s1, int s2, int n, int u, int v, boolean forward) {
+        // p, u ... n, s2 ... s1, v
+        makeTwoOptMove(p, s1, u, v);
+        // p, n ... u, s2 ... s1, v
+        makeTwoOptMove(p, u, n, s2);
+        // p, n ... u, s1 ... s2, v
+        if (forward) makeTwoOptMove(u, s2, s1, v);
+    }
+
+    /**
+     * Reverses the part of the tour from the from node to the to node.
+     * If that part is more than half the tour, the rest of the tour is reversed instead.
+     * That results in the same route, only driven in the other direction.
+     */
+    private void reverse(int from, int to) {
+        int i = positions[from];
+        int j = positions[to];
+        int length = j - i;
+        if (length < 0) length += size;
+        length++;
+
+        if (length * 2 > size) {
+            i = positions[next(to)];
+            j = positions[previous(from)];
+            length = size - length;
+        }
+
+        for (int k = 0; k < length / 2; k++) {
+            int node1 = tour[i];
+            int node2 = tour[j];
+            tour[i] = node2;
+            positions[node2] = i;
+            tour[j] = node1;
+            positions[node1] = j;
+
+            if (++i == size) i = 0;
+            if (--j < 0) j = size - 1;
+        }
+    }
+
+}
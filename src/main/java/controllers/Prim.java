@@ -0,0 +1,60 @@
+package controllers;
+
+import models.graph.DistanceMatrix;
+
+import java.util.Arrays;
+
+/**
+ * Prim's algorithm: grows a minimum spanning tree from the home node (index 0)
+ * by adding the closest node that isn't in the tree yet, one at a time.
+ * The tree is returned as the parent index of each node, with -1 for the home node.
+ *
+ * @see RouteCalculator#calcMinimumSpanningTree
+ */
+public class Prim {
+
+    private Prim() { }
+
+
+    /**
+     * Prim over all distances between the nodes, in O(n^2) with plain arrays.
+     * The closest node is found by checking the distance of every node to the tree,
+     * which is as fast as it gets when every node is connected to every other node.
+     *
+     * @return The parent of each node in the tree.
+     */
+    public static int[] calcTree(DistanceMatrix distances) {
+        assert (distances != null) : "Distances shouldn't be null";
+
+        int size = distances.getSize();
+        int[] parents = new int[size];
+        if (size == 0) return parents;
+
+        // The distance of each node to the tree and the tree node it's closest to.
+        int[] treeDistances = new int[size];
+        boolean[] inTree = new boolean[size];
+        Arrays.fill(treeDistances, Integer.MAX_VALUE);
+        parents[0] = -1;
+        treeDistances[0] = 0;
+        for (int added = 0; added < size; added++) {
+            int closest = -1;
+            for (int node = 0; node < size; node++) {
+                if (!inTree[node] && (closest == -1 || treeDistances[node] < treeDistances[closest])) closest = node;
+            }
+
+            inTree[closest] = true;
+            for (int node = 0; node < size; node++) {
+                if (inTree[node]) continue;
+
+                int distance = distances.get(closest, node);
+                if (distance < treeDistances[node]) {
+                    treeDistances[node] = distance;
+                    parents[node] = closest;
+                }
+            }
+        }
+
+        return parents;
+    }
+
+}
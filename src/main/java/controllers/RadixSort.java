@@ -0,0 +1,62 @@
+package controllers;
+
+import java.util.Arrays;
+
+/**
+ * LSD radix sort for non-negative int keys, like edge distances.
+ * Sorts a byte at a time from the lowest byte up, with a counting sort per byte.
+ * Bytes above the highest byte of the biggest key are skipped, so small keys only take one or two passes.
+ *
+ * @see RouteCalculator#calcRouteKruskal
+ */
+public class RadixSort {
+
+    private static final int BITS = 8;
+    private static final int BUCKETS = 1 << BITS;
+
+
+    private RadixSort() { }
+
+
+    /**
+     * Sorts the indexes of the keys by key. Indexes with the same key stay in index order.
+     *
+     * @return The indexes 0 to keys.length - 1, ordered by key from low to high.
+     */
+    public static int[] sortIndexes(int[] keys) {
+        assert (keys != null) : "Keys shouldn't be null";
+
+        int size = keys.length;
+        int[] indexes = new int[size];
+        int max = 0;
+        for (int i = 0; i < size; i++) {
+            assert (keys[i] >= 0) : "Keys shouldn't be negative";
+
+            indexes[i] = i;
+            max = Math.max(max, keys[i]);
+        }
+
+        int[] sorted = new int[size];
+        int[] counts = new int[BUCKETS + 1];
+        for (int shift = 0; shift < Integer.SIZE && (max >>> shift) != 0; shift += BITS) {
+            Arrays.fill(counts, 0);
+            for (int index : indexes) {
+                counts[((keys[index] >>> shift) & (BUCKETS - 1)) + 1]++;
+            }
+            for (int i = 0; i < BUCKETS; i++) {
+                counts[i + 1] += counts[i];
+            }
+            // Taking the indexes in their current order keeps the sort stable, which keeps the lower bytes sorted.
+            for (int index : indexes) {
+                sorted[counts[(keys[index] >>> shift) & (BUCKETS - 1)]++] = index;
+            }
+
+            int[] temp = indexes;
+            indexes = sorted;
+            sorted = temp;
+        }
+
+        return indexes;
+    }
+
+}
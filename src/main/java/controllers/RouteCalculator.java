@@ -1,153 +1,204 @@
 package controllers;
 
-import models.Complaint;
-import models.DisjointSet;
+import enums.EdgeGenerator;
+import models.Location;
 import models.Route;
+import models.RouteImprovement;
 import models.Schedule;
+import models.graph.CsrGraph;
+import models.graph.DistanceMatrix;
 import models.graph.Graph;
+import models.graph.GraphBuilder;
 import models.graph.GraphEdge;
 import models.graph.GraphNode;
-import models.tree.SimpleTree;
 
 import java.util.ArrayList;
-import java.util.Comparator;
-import java.util.HashMap;
-import java.util.PriorityQueue;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
 
 /**
  * Algorithms to calculate the best route for a schedule.
  */
 public class RouteCalculator {
 
+    /**
+     * The maximum amount of unique locations getRouteHeldKarp can handle.
+     * 22 stops already need about 460MB of memory.
+     *
+     * @see #getRouteHeldKarp
+     */
+    public static final int HELD_KARP_MAX_STOPS = 22;
+    /**
+     * The memory reserved by Held-Karp runs that are going on, in bytes.
+     * Routes for multiple employees are made at the same time, and a few Held-Karp runs of 22 stops
+     * don't fit in a default heap together.
+     *
+     * @see #reserveHeldKarpMemory
+     */
+    private static long heldKarpReservedBytes = 0;
+    /**
+     * The maximum amount of unique locations getRouteBranchAndBound can handle.
+     * Visited nodes are kept in the bits of a long, including the home node.
+     *
+     * @see #getRouteBranchAndBound
+     */
+    public static final int BRANCH_AND_BOUND_MAX_STOPS = 63;
+    /**
+     * The maximum amount of nodes calcMinimumSpanningTree uses Prim over the distance matrix for,
+     * when the graph doesn't have octant edges yet.
+     * Up to this size its n^2 steps are faster than making and sorting the octant edges for Kruskal:
+     * 0.2ms against 0.3ms at 128 nodes, but 0.6ms against 0.4ms at 256 nodes.
+     *
+     * @see #calcMinimumSpanningTree
+     */
+    private static final int DENSE_PRIM_MAX_SIZE = 192;
+    /**
+     * The minimum amount of nodes calcMinimumSpanningTree uses the parallel Boruvka for, when there are multiple cores.
+     * Smaller graphs are done before the threads would pay off.
+     *
+     * @see #calcMinimumSpanningTree
+     */
+    private static final int PARALLEL_BORUVKA_MIN_SIZE = 50_000;
+    /**
+     * The maximum amount of children calcRouteFromTree orders by closest to the previous child, which is O(n^2).
+     * Minimum spanning trees rarely have nodes with more children.
+     *
+     * @see #calcRouteFromTree
+     */
+    private static final int GREEDY_CHILDREN_MAX = 16;
+
+
     private static Graph scheduleToGraph(Schedule schedule) {
         assert (schedule != null) : "Schedule shouldn't be null";
 
-        Graph graph = new Graph();
-        for (Complaint complaint : schedule) {
-            GraphNode node = new GraphNode(complaint.getHome().getLocation());
-            if (!graph.contains(node)) graph.add(node);
-        }
-        return graph;
+        return new GraphBuilder()
+                .addAll(schedule.stream().map(complaint -> complaint.getHome().getLocation()).iterator())
+                .build();
     }
 
-
     /**
-     * Converts the output from the kruskal algorithm to a SimpleTree object.
-     *
-     * @see #calcRouteKruskal
+     * The graph of the given schedule. Made with scheduleToGraph and saved in the schedule,
+     * so its distance matrix is only calculated once for all route algorithms.
      */
-    private static SimpleTree<GraphNode> edgeListToSimpleTree(ArrayList<GraphEdge> edges) {
-        assert (edges != null) : "Edges shouldn't be null";
-
-        // In edgeListToSimpleTreeLoop(), we recursively go over all nodes connected to a node.
-        // So we need to convert the edges parameter into the following data type:
-        HashMap<GraphNode, ArrayList<GraphNode>> nodes = Graph.getNodeConnections(edges);
-
-        GraphNode home = null;
-        // Find the home node.
-        for (GraphNode node : nodes.keySet()) {
-            if (node.equals(Graph.HOMENODE)) {
-                home = node;
-                break;
-            }
-        }
+    private static Graph getGraph(Schedule schedule) {
+        assert (schedule != null) : "Schedule shouldn't be null";
 
-        if (home == null) {
-            return null;
+        Graph graph = schedule.getGraph();
+        if (graph == null) {
+            graph = scheduleToGraph(schedule);
+            schedule.setGraph(graph);
         }
-
-        SimpleTree<GraphNode> root = edgeListToSimpleTreeLoop(null, home, nodes, new ArrayList<>());
-
-        assert (root.getData().equals(Graph.HOMENODE)) : "Root tree data isn't the home node";
-        return root;
+        return graph;
     }
 
     /**
-     * Recursive code of the edgeListToSimpleTree function.
+     * The minimum spanning tree the schedule keeps up to date for its graph, made if it isn't there yet.
+     * Complaints that are added or removed after that update the tree instead of making it again.
      *
-     * @param parentTree The future parent tree node of the "node" param. Should be null in calls as root has no parents.
-     * @param node       The graph node that will be made a tree node and added to the tree.
-     * @param nodes      All nodes to be added.
-     * @param added      A list of graph nodes that were added already. Should be empty in call.
-     * @see #edgeListToSimpleTree
-     */
-    private static SimpleTree edgeListToSimpleTreeLoop(SimpleTree<GraphNode> parentTree, GraphNode node, HashMap<GraphNode,
-            ArrayList<GraphNode>> nodes, ArrayList<GraphNode> added) {
-        assert (node != null) : "Node shouldn't be null";
-        assert (nodes != null) : "Nodes shouldn't be null";
-        assert (added != null) : "Added shouldn't be null";
-
-        if (added.contains(node)) return null;
-        added.add(node);
-
-        // Makes a new tree with the node as data and inserts it into the parent tree.
-        // On the first iteration it only does the first part, since root trees don't have a parent tree.
-        SimpleTree newTree = parentTree != null ? parentTree.insert(node) : new SimpleTree(node);
-
-        for (GraphNode n : nodes.get(node)) {
-            edgeListToSimpleTreeLoop(newTree, n, nodes, added);
-        }
+     * @see Schedule#getSpanningTree
+     */
+    private static DynamicSpanningTree getSpanningTree(Schedule schedule) {
+        assert (schedule != null) : "Schedule shouldn't be null";
 
-        return newTree;
+        DynamicSpanningTree tree = schedule.getSpanningTree();
+        if (tree == null) {
+            // The tree needs the octant edges to be updated, so it's made over those with Kruskal.
+            tree = new DynamicSpanningTree(getGraph(schedule));
+            schedule.setSpanningTree(tree);
+        }
+        return tree;
     }
 
 
     /**
-     * Makes a list from the nodes in the given SimpleTree.
-     * Ordered as a good route to travel to all nodes in a short time.
+     * Makes a route by walking through the tree depth first from the home node, with a stack instead of recursion,
+     * so deep trees like a schedule on a line don't run out of stack space.
+     * Child nodes are walked through in order of the shortest distance from the previous child node.
+     * Nodes with more than GREEDY_CHILDREN_MAX children walk them by distance from the node instead.
+     *
+     * @param graph The graph the edges are from.
+     * @param edges The tree edges, for example from calcMinimumSpanningTree.
+     * @return The route over the nodes that the tree connects to the home node, from and to the home node.
+     *         Null if the home node doesn't have edges.
+     * @see #calcMinimumSpanningTree
      */
-    private static Route calcRouteFromSimpleTree(SimpleTree<GraphNode> tree) {
-        assert (tree != null) : "Tree shouldn't be null";
+    private static Route calcRouteFromTree(Graph graph, ArrayList<GraphEdge> edges) {
+        assert (graph != null) : "Graph shouldn't be null";
+        assert (edges != null) : "Edges shouldn't be null";
+
+        CsrGraph adjacency = new CsrGraph(graph.size(), edges);
+        // The home node is always at index 0.
+        if (adjacency.getSize() == 0 || adjacency.getDegree(0) == 0) return null;
 
         Route route = new Route();
-        calcRouteFromSimpleTreeLoop(tree, route);
-        route.add(tree.getData());
+        boolean[] visited = new boolean[graph.size()];
+        // Each node is pushed once, by its parent, so the stack never holds more than all nodes.
+        int[] stack = new int[graph.size()];
+        int stackSize = 0;
+        int[] children = new int[graph.size()];
+        stack[stackSize++] = 0;
+        visited[0] = true;
+        while (stackSize > 0) {
+            int node = stack[--stackSize];
+            route.add(graph.get(node));
+
+            int childCount = 0;
+            for (int i = adjacency.getStart(node); i < adjacency.getEnd(node); i++) {
+                int child = adjacency.getTarget(i);
+                if (visited[child]) continue;
+
+                visited[child] = true;
+                children[childCount++] = child;
+            }
+            sortChildren(graph, node, children, childCount);
+            // Pushed in reverse, so the first child is walked through first.
+            for (int i = childCount - 1; i >= 0; i--) {
+                stack[stackSize++] = children[i];
+            }
+        }
+        route.add(graph.get(0));
 
         return route;
     }
 
     /**
-     * Recursive code of the calcRouteFromSimpleTree function.
-     * The tree is walked through depth first.
-     * Child nodes are walked through in order of the shortest distance from the previous child node.
-     *
-     * @see #calcRouteFromSimpleTree
+     * Orders the first count children so each child is the closest to the one before it,
+     * starting with the closest to the parent. That's O(count^2), so more than GREEDY_CHILDREN_MAX children are
+     * sorted by their distance to the parent instead.
+     * Distances come from the node coordinates, so big graphs don't need their distance matrix for this.
      */
-    private static void calcRouteFromSimpleTreeLoop(SimpleTree<GraphNode> tree, Route route) {
-        assert (tree != null) : "Tree shouldn't be null";
-        assert (route != null) : "Route shouldn't be null";
-
-        // Children are cloned because the next loop removes them for convenience.
-        ArrayList<SimpleTree> children = (ArrayList<SimpleTree>) tree.getChildren().clone();
-        ArrayList<SimpleTree<GraphNode>> sortedChildren = new ArrayList<>();
-
-        // Represents the child that was last added to sortedChildren.
-        // Starts with tree so the first child that will be added is the one closest to the parent tree.
-        // It's reassigned to that child before it's added to sortedChildren. So tree won't be put in sortedChildren.
-        SimpleTree<GraphNode> lastSortedChild = tree;
-        // Children are added to sortedChildren in order of their distance to the latest addition.
-        // This results in a small total distance in most cases.
-        // It's O(n^2) so it might get slow if there are a lot of children.
-        while (children.size() > 0) {
-            int lowestDistance = Integer.MAX_VALUE;
-            SimpleTree lowestChild = null;
-            for (SimpleTree<GraphNode> child : children) {
-                int distance = lastSortedChild.getData().getDrivingDistance(child.getData());
-
-                if (distance < lowestDistance) {
-                    lowestDistance = distance;
-                    lowestChild = child;
-                }
+    private static void sortChildren(Graph graph, int parent, int[] children, int count) {
+        if (count > GREEDY_CHILDREN_MAX) {
+            long[] sorted = new long[count];
+            for (int i = 0; i < count; i++) {
+                sorted[i] = (long) graph.get(parent).getDrivingDistance(graph.get(children[i])) << 32 | children[i];
             }
-
-            lastSortedChild = lowestChild;
-            sortedChildren.add(lowestChild);
-            children.remove(lowestChild);
+            Arrays.sort(sorted);
+            for (int i = 0; i < count; i++) {
+                children[i] = (int) sorted[i];
+            }
+            return;
         }
 
-        route.add(tree.getData());
-        for (SimpleTree child : sortedChildren) {
-            calcRouteFromSimpleTreeLoop(child, route);
+        GraphNode previous = graph.get(parent);
+        for (int i = 0; i < count; i++) {
+            // Swap the closest child of the ones left to the front of them.
+            int closest = i;
+            int closestDistance = previous.getDrivingDistance(graph.get(children[i]));
+            for (int j = i + 1; j < count; j++) {
+                int distance = previous.getDrivingDistance(graph.get(children[j]));
+                if (distance < closestDistance) {
+                    closestDistance = distance;
+                    closest = j;
+                }
+            }
+            int temp = children[i];
+            children[i] = children[closest];
+            children[closest] = temp;
+            previous = graph.get(children[i]);
         }
     }
 
@@ -157,60 +208,109 @@ public class RouteCalculator {
      * Might not be the optimal route, but is fast.
      * The following steps are taken:
      * 1. Make a graph from the schedule.
-     * 2. Generate edges in the graph.
-     * 3. Use kruskal to get a list representing a MST.
-     * 4. Make a SimpleTree from that list.
-     * 5. Walk through the tree and save the order as a Route.
+     * 2. Make a list representing a MST, with Prim for small graphs or with Kruskal over generated edges.
+     *    The schedule keeps the tree, so complaints that are added or removed later update it instead.
+     * 3. Walk through the tree depth first and save the order as a Route.
      *
      * @return The filled Route. Can be null.
      */
     public static Route getRouteKruskal(Schedule schedule) {
+        return getRouteKruskal(schedule, false);
+    }
+
+    /**
+     * Makes a route with the Kruskal algorithm like getRouteKruskal(Schedule).
+     *
+     * @param improve Whether the route should be made shorter with improveRoute afterwards.
+     * @return The filled Route. Can be null.
+     * @see #improveRoute
+     */
+    public static Route getRouteKruskal(Schedule schedule, boolean improve) {
         assert (schedule != null) : "Schedule shouldn't be null";
 
-        ArrayList<GraphEdge> edges = calcRouteKruskal(scheduleToGraph(schedule));
-        SimpleTree<GraphNode> tree = edgeListToSimpleTree(edges);
-        if (tree == null) return null;
+        DynamicSpanningTree tree = getSpanningTree(schedule);
+        ArrayList<GraphEdge> edges = tree.getTree();
+        Route route = calcRouteFromTree(tree.getGraph(), edges);
+        if (route == null) return null;
 
-        Route route = new Route(calcRouteFromSimpleTree(tree));
+        if (improve) route = improveRoute(route).getRoute();
         assert (route.get(0).equals(Graph.HOMENODE)) : "Route doesn't start at the home node";
         assert (route.get(route.size() - 1).equals(Graph.HOMENODE)) : "Route doesn't end at the home node";
 
 //        Visualizer.drawEdges(edges);
-//        Visualizer.drawSimpleTree(tree);
 
         schedule.setRoute(route);
         return route;
     }
 
+    /**
+     * Makes the given route shorter with 2-opt and Or-opt moves.
+     * 2-opt replaces 2 edges by reversing the part of the route between them.
+     * Or-opt moves 1 to 3 locations to a different place in the route.
+     * The given route isn't changed.
+     *
+     * @param route Route that starts and ends at the same location.
+     * @return The improved route together with the distance before and after.
+     * @see LocalSearch
+     */
+    public static RouteImprovement improveRoute(Route route) {
+        assert (route != null) : "Route shouldn't be null";
+        assert (route.size() >= 2) : "Route should at least go from and to the home node";
+        assert (route.get(0).equals(route.get(route.size() - 1))) : "Route doesn't end where it starts";
+
+        // The last location is the start location again, which the tour already goes back to.
+        LocalSearch localSearch = createLocalSearch(route, identityTour(route.size() - 1));
+        int distanceBefore = localSearch.getDistance();
+        localSearch.optimize();
+        int distanceAfter = localSearch.getDistance();
+        assert (distanceAfter <= distanceBefore) : "Local search made the route longer";
+
+        Route improved = new Route();
+        improved.add(route.get(0));
+        for (int index : tourToOrder(localSearch.getTour())) {
+            improved.add(route.get(index));
+        }
+        improved.add(route.get(0));
+
+        return new RouteImprovement(improved, distanceBefore, distanceAfter);
+    }
+
     /**
      * Makes an edge list from the given graph with the Kruskal algorithm.
      * Edges are generated for the graph if there are non yet.
+     * Octant edges are used, so the result is a minimum spanning tree over all nodes.
      */
     private static ArrayList<GraphEdge> calcRouteKruskal(Graph graph) {
         assert (graph != null) : "Graph shouldn't be null";
 
         // Generate edges since a graph made from a schedule doesn't have edges yet.
-        graph.createEdges();
-
-        // Sort edges by smallest to biggest distance.
-        PriorityQueue<GraphEdge> edgeQueue = new PriorityQueue<>(Comparator.comparingInt(e -> e.distance));
-        edgeQueue.addAll(graph.getEdges().values());
+        graph.createEdges(EdgeGenerator.octant);
+
+        // Copy the edges to arrays, so the loop below doesn't have to follow edge references.
+        ArrayList<GraphEdge> edges = graph.getEdges().values();
+        int[] distances = new int[edges.size()];
+        int[] nodes1 = new int[edges.size()];
+        int[] nodes2 = new int[edges.size()];
+        for (int i = 0; i < edges.size(); i++) {
+            GraphEdge edge = edges.get(i);
+            distances[i] = edge.distance;
+            nodes1[i] = edge.index1;
+            nodes2[i] = edge.index2;
+        }
+        // Sort edges by smallest to biggest distance. Distances are small ints, so a radix sort is linear.
+        int[] sorted = RadixSort.sortIndexes(distances);
 
         // Classic Kruskals algorithm implementation.
         // 1. Make a set for each node.
-        UnionFind unionFind = new UnionFind(graph);
+        IndexUnionFind unionFind = new IndexUnionFind(graph.size());
         ArrayList<GraphEdge> result = new ArrayList<>(graph.size());
-        // 2. Loop through the edges from shortest to longest.
-        for (GraphEdge edge : edgeQueue) {
-            // 3. Get the sets of the edge nodes.
-            DisjointSet set1 = unionFind.find(edge.node1);
-            DisjointSet set2 = unionFind.find(edge.node2);
-
-            // 4. Ignore the edge if the nodes have the same set (prevents loops).
-            // Otherwise, add the edge to the result and unite the sets.
-            if (!set1.equals(set2)) {
-                result.add(edge);
-                unionFind.union(set1, set2);
+        // 2. Loop through the edges from shortest to longest, until the tree is complete.
+        for (int i = 0; i < sorted.length && result.size() < graph.size() - 1; i++) {
+            int edge = sorted[i];
+            // 3. Unite the sets of the edge nodes.
+            // 4. Add the edge to the result if the nodes were in different sets. Otherwise it would make a loop.
+            if (unionFind.union(nodes1[edge], nodes2[edge])) {
+                result.add(edges.get(edge));
             }
         }
 
@@ -218,15 +318,332 @@ public class RouteCalculator {
     }
 
 
+    /**
+     * Makes a minimum spanning tree over all graph nodes, as an edge list like calcRouteKruskal.
+     * The engine depends on how many candidate edges there are:
+     * without octant edges every node is a candidate neighbour of every other node, n^2 in total.
+     * For small graphs Prim over the distance matrix goes through those faster than the octant edges can be made.
+     * Otherwise the octant edges are made (or already there), which are only about 4n candidates.
+     * Kruskal sorts those in linear time, so it's faster than Prim with a heap over the same edges.
+     * Very big graphs use Boruvka over the octant edges instead if there are multiple cores to split it over.
+     *
+     * @see Prim
+     * @see Boruvka
+     */
+    private static ArrayList<GraphEdge> calcMinimumSpanningTree(Graph graph) {
+        assert (graph != null) : "Graph shouldn't be null";
+
+        if (graph.size() <= DENSE_PRIM_MAX_SIZE && !graph.hasEdges(EdgeGenerator.octant)) {
+            return parentsToEdges(graph, Prim.calcTree(graph.getDistanceMatrix()));
+        }
+        if (graph.size() >= PARALLEL_BORUVKA_MIN_SIZE && ForkJoinPool.getCommonPoolParallelism() > 1) {
+            graph.createEdges(EdgeGenerator.octant);
+            return new Boruvka(graph.size(), graph.getEdges().values()).calcTree();
+        }
+        return calcRouteKruskal(graph);
+    }
+
+    /**
+     * Makes an edge from each node to its parent in the tree.
+     *
+     * @param parents The parent index of each node in the graph. -1 for the root and nodes that aren't in the tree.
+     */
+    private static ArrayList<GraphEdge> parentsToEdges(Graph graph, int[] parents) {
+        assert (graph != null) : "Graph shouldn't be null";
+        assert (parents != null && parents.length == graph.size()) : "Parents should have a parent for each node";
+
+        ArrayList<GraphEdge> edges = new ArrayList<>(graph.size());
+        for (int i = 0; i < parents.length; i++) {
+            if (parents[i] == -1) continue;
+
+            GraphNode node = graph.get(i);
+            GraphNode parent = graph.get(parents[i]);
+            edges.add(new GraphEdge(parent, parents[i], node, i, parent.getDrivingDistance(node)));
+        }
+        return edges;
+    }
+
+
+    /**
+     * Makes a route that starts at the home node, visits the graph nodes in the given order and goes back home.
+     *
+     * @param order Graph indexes of the nodes to visit. Shouldn't contain the home node (index 0).
+     */
+    private static Route indexesToRoute(Graph graph, int[] order) {
+        assert (graph != null) : "Graph shouldn't be null";
+        assert (order != null) : "Order shouldn't be null";
+
+        Route route = new Route();
+        route.add(Graph.HOMENODE);
+        for (int index : order) {
+            route.add(graph.get(index));
+        }
+        route.add(Graph.HOMENODE);
+        return route;
+    }
+
+
+    /**
+     * Makes a LocalSearch for the given tour over the first tour.length locations.
+     */
+    private static LocalSearch createLocalSearch(ArrayList<? extends Location> locations, int[] tour) {
+        assert (locations != null) : "Locations shouldn't be null";
+        assert (tour != null) : "Tour shouldn't be null";
+        assert (locations.size() >= tour.length) : "Tour has more nodes than there are locations";
+
+        return new LocalSearch(new DistanceMatrix(locations.subList(0, tour.length)), tour);
+    }
+
+    /**
+     * Makes a LocalSearch for the given tour over all graph nodes, using the distance matrix of the graph.
+     */
+    private static LocalSearch createLocalSearch(Graph graph, int[] tour) {
+        assert (graph != null) : "Graph shouldn't be null";
+        assert (tour != null) : "Tour shouldn't be null";
+
+        return new LocalSearch(graph.getDistanceMatrix(), tour);
+    }
+
+    /**
+     * Tour that visits the indexes 0 to size - 1 in order.
+     */
+    private static int[] identityTour(int size) {
+        int[] tour = new int[size];
+        for (int i = 0; i < size; i++) {
+            tour[i] = i;
+        }
+        return tour;
+    }
+
+    /**
+     * Rotates the tour so it starts right after the home node (index 0) and leaves the home node out.
+     *
+     * @return Node indexes in the order to visit them. Doesn't include the home node.
+     */
+    private static int[] tourToOrder(int[] tour) {
+        assert (tour != null) : "Tour shouldn't be null";
+
+        int start = 0;
+        while (tour[start] != 0) start++;
+
+        int[] order = new int[tour.length - 1];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = tour[(start + 1 + i) % tour.length];
+        }
+        return order;
+    }
+
+    /**
+     * A tour of graph indexes, starting with the home node, made from the Kruskal MST like Christofides does.
+     *
+     * @see Christofides
+     */
+    private static int[] calcChristofidesTour(Graph graph) {
+        assert (graph != null) : "Graph shouldn't be null";
+
+        ArrayList<GraphEdge> edges = calcMinimumSpanningTree(graph);
+        int[] treeNodes1 = new int[edges.size()];
+        int[] treeNodes2 = new int[edges.size()];
+        for (int i = 0; i < edges.size(); i++) {
+            treeNodes1[i] = edges.get(i).index1;
+            treeNodes2[i] = edges.get(i).index2;
+        }
+
+        return new Christofides(graph.getDistanceMatrix(), treeNodes1, treeNodes2).calcTour();
+    }
+
+
+    /**
+     * Makes a route to follow from the locations in the given schedule with a Christofides-style construction.
+     * The odd nodes of the Kruskal MST are matched in pairs, which gives a graph with an Euler tour.
+     * That tour is walked while skipping nodes that were visited already.
+     * Usually about 10% shorter than getRouteKruskal, and a better start for local search.
+     *
+     * @return The filled Route.
+     * @see Christofides
+     */
+    public static Route getRouteChristofides(Schedule schedule) {
+        return getRouteChristofides(schedule, false);
+    }
+
+    /**
+     * Makes a route with a Christofides-style construction like getRouteChristofides(Schedule).
+     *
+     * @param improve Whether the route should be made shorter with local search afterwards, like improveRoute does.
+     * @return The filled Route.
+     * @see LocalSearch
+     */
+    public static Route getRouteChristofides(Schedule schedule, boolean improve) {
+        assert (schedule != null) : "Schedule shouldn't be null";
+
+        Graph graph = getGraph(schedule);
+        int[] tour = calcChristofidesTour(graph);
+        if (improve) {
+            LocalSearch localSearch = createLocalSearch(graph, tour);
+            localSearch.optimize();
+            tour = localSearch.getTour();
+        }
+
+        Route route = indexesToRoute(graph, tourToOrder(tour));
+        assert (route.get(0).equals(Graph.HOMENODE)) : "Route doesn't start at the home node";
+        assert (route.get(route.size() - 1).equals(Graph.HOMENODE)) : "Route doesn't end at the home node";
+
+        schedule.setRoute(route);
+        return route;
+    }
+
+
+    /**
+     * Makes the best route it can find from the locations in the given schedule within the given time.
+     * Starts with the Christofides route and improves it with local search.
+     * After that, the route is repeatedly kicked out of its local optimum and improved again,
+     * keeping the best route found until the time is up or the calculation is cancelled.
+     *
+     * @param budgetMillis Milliseconds the calculation may take.
+     * @param cancelled    Can be set to true from another thread to stop early and get the best route so far.
+     * @see LocalSearch#optimizeChained
+     */
+    public static Route getRouteAnytime(Schedule schedule, long budgetMillis, AtomicBoolean cancelled) {
+        assert (schedule != null) : "Schedule shouldn't be null";
+        assert (budgetMillis >= 0) : "BudgetMillis shouldn't be negative";
+        assert (cancelled != null) : "Cancelled shouldn't be null";
+
+        long deadline = System.nanoTime() + budgetMillis * 1_000_000;
+        BooleanSupplier stop = () -> cancelled.get() || System.nanoTime() - deadline >= 0;
+
+        Graph graph = getGraph(schedule);
+        LocalSearch localSearch = createLocalSearch(graph, calcChristofidesTour(graph));
+        // A fixed seed makes runs with the same amount of iterations give the same route.
+        localSearch.optimizeChained(stop, new Random(0));
+
+        Route route = indexesToRoute(graph, tourToOrder(localSearch.getTour()));
+        assert (route.get(0).equals(Graph.HOMENODE)) : "Route doesn't start at the home node";
+        assert (route.get(route.size() - 1).equals(Graph.HOMENODE)) : "Route doesn't end at the home node";
+
+        schedule.setRoute(route);
+        return route;
+    }
+
+
+    /**
+     * Makes the best route it can find from the locations in the given schedule within the given time,
+     * with several chained local searches (islands) on separate cores that share their best routes.
+     * Starts from the Christofides route improved with local search, like getRouteAnytime.
+     * Uses a fixed seed, so runs with the same amount of epochs give the same route.
+     *
+     * @param budgetMillis Milliseconds the calculation may take.
+     * @param cancelled    Can be set to true from another thread to stop early and get the best route so far.
+     * @see IslandSearch
+     */
+    public static Route getRouteIslands(Schedule schedule, long budgetMillis, AtomicBoolean cancelled) {
+        assert (schedule != null) : "Schedule shouldn't be null";
+        assert (budgetMillis >= 0) : "BudgetMillis shouldn't be negative";
+        assert (cancelled != null) : "Cancelled shouldn't be null";
+
+        long deadline = System.nanoTime() + budgetMillis * 1_000_000;
+        BooleanSupplier stop = () -> cancelled.get() || System.nanoTime() - deadline >= 0;
+
+        Graph graph = getGraph(schedule);
+        LocalSearch localSearch = createLocalSearch(graph, calcChristofidesTour(graph));
+        localSearch.optimize(stop);
+        int[] tour = new IslandSearch(localSearch, 0).search(stop);
+
+        Route route = indexesToRoute(graph, tourToOrder(tour));
+        assert (route.get(0).equals(Graph.HOMENODE)) : "Route doesn't start at the home node";
+        assert (route.get(route.size() - 1).equals(Graph.HOMENODE)) : "Route doesn't end at the home node";
+
+        schedule.setRoute(route);
+        return route;
+    }
+
+
+    /**
+     * Makes a route to follow from the locations in the given schedule by sorting them along a Hilbert curve.
+     * The curve goes through every point of a square grid and keeps points that are close on the curve close
+     * on the map, so the route doesn't jump around much. It's O(n log n), which makes it usable for huge schedules,
+     * but the route is about 25% longer than the optimal route.
+     */
+    public static Route getRouteSpaceFillingCurve(Schedule schedule) {
+        assert (schedule != null) : "Schedule shouldn't be null";
+
+        Graph graph = getGraph(schedule);
+
+        // The curve grid starts at the lowest coordinates and is a power of 2 wide.
+        int minX = Integer.MAX_VALUE;
+        int minY = Integer.MAX_VALUE;
+        int maxX = Integer.MIN_VALUE;
+        int maxY = Integer.MIN_VALUE;
+        for (GraphNode node : graph) {
+            minX = Math.min(minX, node.x);
+            minY = Math.min(minY, node.y);
+            maxX = Math.max(maxX, node.x);
+            maxY = Math.max(maxY, node.y);
+        }
+        int gridSize = Integer.highestOneBit(Math.max(Math.max(maxX - minX, maxY - minY), 1)) << 1;
+
+        // Sort the stops by their position on the curve. Each is packed as curve index << 32 | graph index.
+        long[] sorted = new long[graph.size() - 1];
+        for (int i = 1; i < graph.size(); i++) {
+            GraphNode node = graph.get(i);
+            sorted[i - 1] = calcHilbertIndex(gridSize, node.x - minX, node.y - minY) << 32 | i;
+        }
+        Arrays.sort(sorted);
+
+        int[] order = new int[sorted.length];
+        for (int i = 0; i < sorted.length; i++) {
+            order[i] = (int) sorted[i];
+        }
+
+        Route route = indexesToRoute(graph, order);
+        assert (route.get(0).equals(Graph.HOMENODE)) : "Route doesn't start at the home node";
+        assert (route.get(route.size() - 1).equals(Graph.HOMENODE)) : "Route doesn't end at the home node";
+
+        schedule.setRoute(route);
+        return route;
+    }
+
+    /**
+     * Position of the given point on a Hilbert curve that fills a grid of gridSize by gridSize.
+     * Each step zooms in on the quadrant the point is in, rotating it so the curve always enters at the same corner.
+     *
+     * @param gridSize Width and height of the grid. Should be a power of 2 and at most 2^16.
+     */
+    private static long calcHilbertIndex(int gridSize, int x, int y) {
+        assert (Integer.bitCount(gridSize) == 1) : "GridSize should be a power of 2";
+        assert (gridSize <= 1 << 16) : "GridSize shouldn't be more than 2^16";
+
+        long index = 0;
+        for (int s = gridSize / 2; s > 0; s /= 2) {
+            int rx = (x & s) > 0 ? 1 : 0;
+            int ry = (y & s) > 0 ? 1 : 0;
+            index += (long) s * s * ((3 * rx) ^ ry);
+
+            // Rotate the quadrant.
+            if (ry == 0) {
+                if (rx == 1) {
+                    x = gridSize - 1 - x;
+                    y = gridSize - 1 - y;
+                }
+                int temp = x;
+                x = y;
+                y = temp;
+            }
+        }
+        return index;
+    }
+
+
     /**
      * Makes a route to follow from the locations in the given schedule by trying every combination.
-     * Optimal route but slow.
+     * Optimal route but slow. The combinations are split over all cores.
+     *
+     * @see Bruteforce
      */
     public static Route getRouteBruteforce(Schedule schedule) {
         assert (schedule != null) : "Schedule shouldn't be null";
 
-        Route route = new Route();
-        route.addGraphNodeLocations(calcRouteBruteforce(scheduleToGraph(schedule), new Graph()));
+        Graph graph = getGraph(schedule);
+        Route route = indexesToRoute(graph, new Bruteforce(graph.getDistanceMatrix()).search());
         assert (route.get(0).equals(Graph.HOMENODE)) : "Route doesn't start at the home node";
         assert (route.get(route.size() - 1).equals(Graph.HOMENODE)) : "Route doesn't end at the home node";
 
@@ -235,44 +652,193 @@ public class RouteCalculator {
     }
 
     /**
-     * Recursive code of the getRouteBruteforce function.
+     * Makes the optimal route to follow from the locations in the given schedule with the Held-Karp algorithm.
+     * Gives the same result as trying every combination, but in O(2^n * n^2) instead of O(n!).
+     * Memory grows with 2^n * n, so the schedule can't have more than HELD_KARP_MAX_STOPS unique locations.
+     * When the memory isn't free, for example because other Held-Karp runs are going on,
+     * the route is made with getRouteBranchAndBound instead, which is optimal too.
      *
-     * @param nodes The starting graph. Used as node list.
-     * @param route The route that is ultimately returned. Should be empty in call.
-     *              Of type Graph for the calcTotalDistance function.
-     * @return The route. Of type Graph for the calcTotalDistance function.
-     * @see #getRouteBruteforce
-     */
-    private static Graph calcRouteBruteforce(Graph nodes, Graph route) {
-        assert (nodes != null) : "Nodes shouldn't be null";
-        assert (route != null) : "Route shouldn't be null";
+     * @throws IllegalArgumentException If the schedule has more than HELD_KARP_MAX_STOPS unique locations.
+     * @see #calcRouteHeldKarp
+     */
+    public static Route getRouteHeldKarp(Schedule schedule) {
+        assert (schedule != null) : "Schedule shouldn't be null";
+
+        Graph graph = getGraph(schedule);
+        int stops = graph.size() - 1;
+        // Not an assert: more stops overflow the masks or run out of memory, which would fail much less clearly.
+        if (stops > HELD_KARP_MAX_STOPS) {
+            throw new IllegalArgumentException("Schedule has " + stops +
+                    " locations, Held-Karp can't handle more than " + HELD_KARP_MAX_STOPS);
+        }
+
+        // An int cost and a byte parent for each mask and last stop.
+        long bytes = (1L << stops) * stops * (Integer.BYTES + 1);
+        if (!reserveHeldKarpMemory(bytes)) return getRouteBranchAndBound(schedule);
+
+        int[] order;
+        try {
+            order = calcRouteHeldKarp(graph.getDistanceMatrix());
+        } finally {
+            releaseHeldKarpMemory(bytes);
+        }
+        Route route = indexesToRoute(graph, order);
+        assert (route.get(0).equals(Graph.HOMENODE)) : "Route doesn't start at the home node";
+        assert (route.get(route.size() - 1).equals(Graph.HOMENODE)) : "Route doesn't end at the home node";
 
-        // If nodes is empty, the route is complete.
-        // The for loop won't run and route is returned.
-        Graph minFullRoute = route;
-        int minDistance = Integer.MAX_VALUE;
-        for (GraphNode node : nodes) {
-            // Nodes and route are cloned because each route we try should start from the current route.
-            Graph newNodes = nodes.clone();
-            // Each node in nodes is transferred to route 1 by 1.
-            newNodes.remove(node);
-
-            Graph newRoute = route.clone();
-            newRoute.add(node);
-
-            // Each level of recursion returns its minFullRoute.
-            // Making this the optimal route for the current route + this node and beyond.
-            // Though, the current route + a different node and beyond might be more optimal.
-            Graph fullRoute = calcRouteBruteforce(newNodes, newRoute);
-            int distance = fullRoute.calcTotalDistance();
-            // The most optimal route (shortest distance) combination of "the current route + a node and beyond"
-            // is saved in minFullRoute.
-            if (distance < minDistance) {
-                minFullRoute = fullRoute;
+        schedule.setRoute(route);
+        return route;
+    }
+
+    /**
+     * Reserves memory for a Held-Karp run if it fits in the heap next to the memory in use
+     * and the memory reserved by other runs. Memory that other runs already allocated is counted twice,
+     * so it can say no while the memory would just fit, but never the other way around.
+     *
+     * @return Whether the memory was reserved. Should be released with releaseHeldKarpMemory when the run is done.
+     */
+    private static synchronized boolean reserveHeldKarpMemory(long bytes) {
+        Runtime runtime = Runtime.getRuntime();
+        long free = runtime.maxMemory() - (runtime.totalMemory() - runtime.freeMemory());
+        if (bytes > free - heldKarpReservedBytes) return false;
+
+        heldKarpReservedBytes += bytes;
+        return true;
+    }
+
+    private static synchronized void releaseHeldKarpMemory(long bytes) {
+        heldKarpReservedBytes -= bytes;
+    }
+
+    /**
+     * Calculates the optimal order to visit the nodes in with bitmask dynamic programming.
+     * A state is a set of visited stops (the bits of a mask) and the stop we're currently at.
+     * For each state, the shortest distance from the home node to get there is saved.
+     * Each state is only reachable from states with one stop less, so all masks can be filled in ascending order.
+     *
+     * @param distances The distances between the nodes, including the home node at index 0.
+     * @return Node indexes in the order to visit them. Doesn't include the home node.
+     * @see #getRouteHeldKarp
+     */
+    private static int[] calcRouteHeldKarp(DistanceMatrix distances) {
+        assert (distances != null) : "Distances shouldn't be null";
+        assert (distances.getSize() >= 1) : "Distances should at least have the home node";
+
+        // Stop j in a mask is graph node j + 1, since the home node isn't part of the masks.
+        int stops = distances.getSize() - 1;
+        assert (stops <= HELD_KARP_MAX_STOPS) : "Too many stops for Held-Karp";
+        if (stops == 0) return new int[0];
+
+        int fullMask = (1 << stops) - 1;
+        // Shortest distance for each mask and last stop, at index mask * stops + last.
+        int[] costs = new int[(fullMask + 1) * stops];
+        // The stop before the last stop in the shortest path for each state. Used to walk back the route.
+        byte[] parents = new byte[costs.length];
+        Arrays.fill(costs, Integer.MAX_VALUE);
+
+        // Paths that only visit one stop come straight from home.
+        for (int j = 0; j < stops; j++) {
+            costs[(1 << j) * stops + j] = distances.get(0, j + 1);
+            parents[(1 << j) * stops + j] = -1;
+        }
+
+        for (int mask = 1; mask <= fullMask; mask++) {
+            for (int last = 0; last < stops; last++) {
+                int cost = costs[mask * stops + last];
+                // Unreachable state, or the last stop isn't in the mask.
+                if (cost == Integer.MAX_VALUE) continue;
+
+                for (int next = 0; next < stops; next++) {
+                    if ((mask & (1 << next)) != 0) continue;
+
+                    int index = (mask | (1 << next)) * stops + next;
+                    int newCost = cost + distances.get(last + 1, next + 1);
+                    if (newCost < costs[index]) {
+                        costs[index] = newCost;
+                        parents[index] = (byte) last;
+                    }
+                }
             }
         }
 
-        return minFullRoute;
+        // Close the tour by driving back home from the best last stop.
+        int bestLast = 0;
+        int bestDistance = Integer.MAX_VALUE;
+        for (int last = 0; last < stops; last++) {
+            int distance = costs[fullMask * stops + last] + distances.get(last + 1, 0);
+            if (distance < bestDistance) {
+                bestDistance = distance;
+                bestLast = last;
+            }
+        }
+
+        // Walk back through the parents to get the order.
+        int[] order = new int[stops];
+        int mask = fullMask;
+        int last = bestLast;
+        for (int i = stops - 1; i >= 0; i--) {
+            order[i] = last + 1;
+            int parent = parents[mask * stops + last];
+            mask &= ~(1 << last);
+            last = parent;
+        }
+
+        assert (mask == 0) : "Not all stops are in the order";
+        return order;
+    }
+
+
+    /**
+     * Makes the optimal route to follow from the locations in the given schedule with branch and bound.
+     * Partial routes are skipped once their distance plus the MST of the nodes left is more than the best route so far.
+     * The search starts with the Christofides route improved with local search as best route
+     * and is split over all cores.
+     *
+     * @throws IllegalArgumentException If the schedule has more than BRANCH_AND_BOUND_MAX_STOPS unique locations.
+     * @see BranchAndBound
+     */
+    public static Route getRouteBranchAndBound(Schedule schedule) {
+        assert (schedule != null) : "Schedule shouldn't be null";
+
+        return getRouteBranchAndBound(schedule, () -> false);
+    }
+
+    /**
+     * Makes a route like getRouteBranchAndBound, but stops the search when the time is up.
+     * The route is only optimal if the search is done in time, otherwise it's the best route found so far.
+     * That's never longer than the local search route the search starts with.
+     *
+     * @param budgetMillis Milliseconds the calculation may take.
+     * @param cancelled    Can be set to true from another thread to stop early and get the best route so far.
+     * @throws IllegalArgumentException If the schedule has more than BRANCH_AND_BOUND_MAX_STOPS unique locations.
+     * @see #getRouteBranchAndBound(Schedule)
+     */
+    public static Route getRouteBranchAndBound(Schedule schedule, long budgetMillis, AtomicBoolean cancelled) {
+        assert (schedule != null) : "Schedule shouldn't be null";
+        assert (budgetMillis >= 0) : "BudgetMillis shouldn't be negative";
+        assert (cancelled != null) : "Cancelled shouldn't be null";
+
+        long deadline = System.nanoTime() + budgetMillis * 1_000_000;
+        return getRouteBranchAndBound(schedule, () -> cancelled.get() || System.nanoTime() - deadline >= 0);
+    }
+
+    private static Route getRouteBranchAndBound(Schedule schedule, BooleanSupplier stop) {
+        Graph graph = getGraph(schedule);
+        // Not an assert: more stops don't fit in the visited bits, which would give wrong routes.
+        if (graph.size() - 1 > BRANCH_AND_BOUND_MAX_STOPS) {
+            throw new IllegalArgumentException("Schedule has " + (graph.size() - 1) +
+                    " locations, branch and bound can't handle more than " + BRANCH_AND_BOUND_MAX_STOPS);
+        }
+
+        LocalSearch localSearch = createLocalSearch(graph, calcChristofidesTour(graph));
+        localSearch.optimize();
+        int[] order = new BranchAndBound(graph.getDistanceMatrix()).search(tourToOrder(localSearch.getTour()), stop);
+        Route route = indexesToRoute(graph, order);
+        assert (route.get(0).equals(Graph.HOMENODE)) : "Route doesn't start at the home node";
+        assert (route.get(route.size() - 1).equals(Graph.HOMENODE)) : "Route doesn't end at the home node";
+
+        schedule.setRoute(route);
+        return route;
     }
 
 }
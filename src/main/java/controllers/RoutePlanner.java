@@ -0,0 +1,94 @@
+package controllers;
+
+import controllers.strategies.RouteStrategy;
+import controllers.strategies.RouteStrategySelector;
+import data.EmployeeDB;
+import models.Employee;
+import models.PlannedRoute;
+import models.Route;
+import models.Schedule;
+
+import java.util.Collection;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.function.Consumer;
+
+/**
+ * Makes the routes for the schedules of many employees at the same time.
+ * Each schedule has its own graph and route, so the routes can be calculated independently.
+ */
+public class RoutePlanner {
+
+    /**
+     * Makes the routes for all employees in EmployeeDB.instance with automatically chosen strategies.
+     *
+     * @see #planRoutes(Collection, RouteStrategy, long, Executor, Consumer)
+     */
+    public static int planRoutes(long budgetMillis, Executor executor, Consumer<PlannedRoute> onPlanned) {
+        return planRoutes(EmployeeDB.instance.values(), null, budgetMillis, executor, onPlanned);
+    }
+
+    /**
+     * Makes the routes for the schedules of the given employees on the executor.
+     * Employees without a schedule are skipped.
+     * Blocks until all routes are done, but hands each route to onPlanned as soon as it's done.
+     * onPlanned is only called from the calling thread, so it doesn't have to be thread safe.
+     *
+     * @param strategy     The strategy chosen by the user. When it's null or can't handle a schedule when chosen,
+     *                     RouteStrategySelector.instance chooses one based on the amount of stops.
+     * @param budgetMillis Milliseconds each route may take.
+     * @param executor     Runs the route calculations. For example a ForkJoinPool or a fixed thread pool.
+     * @param onPlanned    Gets the routes in the order they're done.
+     * @return The amount of routes made.
+     */
+    public static int planRoutes(Collection<Employee> employees, RouteStrategy strategy, long budgetMillis,
+                                 Executor executor, Consumer<PlannedRoute> onPlanned) {
+        assert (employees != null) : "Employees shouldn't be null";
+        assert (budgetMillis >= 0) : "BudgetMillis shouldn't be negative";
+        assert (executor != null) : "Executor shouldn't be null";
+        assert (onPlanned != null) : "OnPlanned shouldn't be null";
+
+        ExecutorCompletionService<PlannedRoute> completionService = new ExecutorCompletionService<>(executor);
+        int submitted = 0;
+        for (Employee employee : employees) {
+            Schedule schedule = employee.getSchedule();
+            if (schedule == null) continue;
+
+            RouteStrategy employeeStrategy = selectStrategy(strategy, schedule.size(), budgetMillis);
+            completionService.submit(() -> {
+                Route route = employeeStrategy.getRoute(schedule, budgetMillis);
+                return new PlannedRoute(employee, employeeStrategy.getName(), route);
+            });
+            submitted++;
+        }
+
+        for (int i = 0; i < submitted; i++) {
+            onPlanned.accept(takePlannedRoute(completionService));
+        }
+        return submitted;
+    }
+
+    private static RouteStrategy selectStrategy(RouteStrategy strategy, int stops, long budgetMillis) {
+        if (strategy != null && strategy.canHandleWhenChosen(stops, budgetMillis)) return strategy;
+
+        RouteStrategy selected = RouteStrategySelector.instance.select(stops, budgetMillis);
+        assert (selected != null) : "No strategy can handle the schedule";
+        return selected;
+    }
+
+    /**
+     * Waits for the next route to be done.
+     */
+    private static PlannedRoute takePlannedRoute(ExecutorCompletionService<PlannedRoute> completionService) {
+        try {
+            return completionService.take().get();
+        } catch (ExecutionException ex) {
+            throw new IllegalStateException("Route calculation failed", ex.getCause());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for routes", ex);
+        }
+    }
+
+}
@@ -38,27 +38,27 @@ public class Scheduler {
     public static void createSchedules() {
         ComplaintDB complaintDB = ComplaintDB.instance.filterByFinished(false);
 
-        // Make a list of AvlMapNodes where each unfinished complaint is a node.
+        // One tree is shared by all employees, chosen complaints are removed from it.
+        // Complaints with the same estimated time share a node, of which the first complaint is scheduled first.
         ArrayList<AvlMapNode<Integer, Complaint>> nodes = new ArrayList<>();
         for (Complaint complaint : complaintDB.values()) {
             nodes.add(new AvlMapNode<>(complaint.getEstimatedTime(), complaint));
         }
+        AvlTreeMap<Integer, Complaint> tree = new AvlTreeMap<>(nodes);
 
         for (Employee employee : EmployeeDB.instance.values()) {
-            AvlTreeMap<Integer, Complaint> tree = new AvlTreeMap<>();
-            // Insert the (remaining) nodes in a new tree.
-            tree.insert(nodes);
-
-            ArrayList<AvlMapNode> solution = calcSchedule(tree.getRoot(), 0);
+            ArrayList<AvlMapNode> solution = new ArrayList<>();
+            if (tree.getRoot() != null) solution = calcSchedule(tree.getRoot(), 0);
             // Needs to be reset after each call.
             bestTotalTime = 0;
 
             Schedule schedule = new Schedule();
             for (AvlMapNode<Integer, Complaint> node : solution) {
-                // Remove each chosen node from nodes so multiple schedules can't have the same complaint.
-                nodes.removeIf(n -> n.equals(node));
                 // Add the node complaint to the schedule.
-                schedule.add(node.value);
+                Complaint complaint = node.getValue();
+                schedule.add(complaint);
+                // Remove each chosen complaint from the tree so multiple schedules can't have the same complaint.
+                tree.remove(node.key, complaint);
             }
 
             assert (schedule.getTotalEstimatedTime() <= MIN_PER_DAY) : "Schedule exceeds the work minutes in a day";
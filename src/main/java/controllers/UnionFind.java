@@ -2,35 +2,40 @@ package controllers;
 
 import models.DisjointSet;
 import models.graph.Graph;
-import models.graph.GraphNode;
-
-import java.util.HashMap;
 
 /**
  * Helper functions for DisjointSets.
- * Used by Kruskal's algorithm.
+ * Kruskal uses IndexUnionFind instead, which does the same on arrays.
+ *
+ * @see IndexUnionFind
  */
 public class UnionFind {
 
-    private final HashMap<Integer, DisjointSet> sets;
+    /**
+     * The set of each node by its graph index.
+     */
+    private final DisjointSet[] sets;
 
 
     public UnionFind(Graph graph) {
         assert (graph != null) : "Graph shouldn't be null";
 
-        sets = new HashMap<>();
-        for (GraphNode node : graph) {
+        sets = new DisjointSet[graph.size()];
+        for (int i = 0; i < sets.length; i++) {
             DisjointSet set = new DisjointSet();
             set.setParent(set);
-            sets.put(node.id, set);
+            sets[i] = set;
         }
     }
 
 
-    public DisjointSet find(GraphNode node) {
-        assert (node != null) : "Node shouldn't be null";
+    /**
+     * Gets the root set of the node at the given graph index.
+     */
+    public DisjointSet find(int index) {
+        assert (index >= 0 && index < sets.length) : "Index is out of bounds";
 
-        return find(sets.get(node.id));
+        return find(sets[index]);
     }
 
     /**
@@ -67,15 +72,12 @@ public class UnionFind {
         if (set1.equals(set2)) return;
 
         // Set the parent of one set to the other set depending on the rank.
+        // Only the new root gets a higher rank, and only if both trees were as high.
         if (set1.getRank() < set2.getRank()) {
-            set2.setParent(set1);
-        } else {
             set1.setParent(set2);
-        }
-
-        if (set1.getRank() == set2.getRank()) {
-            set1.incrementRank();
-            set2.incrementRank();
+        } else {
+            set2.setParent(set1);
+            if (set1.getRank() == set2.getRank()) set1.incrementRank();
         }
     }
 
@@ -0,0 +1,46 @@
+package controllers.strategies;
+
+import controllers.RouteCalculator;
+import models.Route;
+import models.Schedule;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Keeps improving the route until the time budget is used up.
+ *
+ * @see RouteCalculator#getRouteAnytime
+ */
+public class AnytimeStrategy implements RouteStrategy {
+
+    /**
+     * The maximum amount of stops the strategy is used for.
+     * Finding the closest neighbours of each stop for the local search is O(n^2).
+     */
+    public static final int MAX_STOPS = LocalSearchStrategy.MAX_STOPS;
+    /**
+     * The minimum time budget the strategy is used for.
+     * With less time, there's no time left to improve on a normal local search.
+     */
+    public static final long MIN_BUDGET_MILLIS = 100;
+
+
+    @Override
+    public String getName() {
+        return "Best route found within the time budget (up to " + MAX_STOPS + " stops)";
+    }
+
+    @Override
+    public boolean canHandle(int stops, long budgetMillis) {
+        return stops <= MAX_STOPS && budgetMillis >= MIN_BUDGET_MILLIS;
+    }
+
+    @Override
+    public Route getRoute(Schedule schedule, long budgetMillis) {
+        assert (schedule != null) : "Schedule shouldn't be null";
+        assert (budgetMillis >= 0) : "BudgetMillis shouldn't be negative";
+
+        return RouteCalculator.getRouteAnytime(schedule, budgetMillis, new AtomicBoolean(false));
+    }
+
+}
@@ -0,0 +1,60 @@
+package controllers.strategies;
+
+import controllers.RouteCalculator;
+import models.Route;
+import models.Schedule;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Optimal route for schedules that are too big for Held-Karp, as long as the search is done within the time budget.
+ * When the time is up, the best route found so far is used, which is at least as good as local search.
+ * Measured on a single core, the search is usually done within a second up to about 22 stops,
+ * but takes a few seconds from 25 stops and 15 seconds at 30 stops, so the route is only perfect up to
+ * 40 stops with a big enough budget or more cores.
+ *
+ * @see RouteCalculator#getRouteBranchAndBound(Schedule, long, AtomicBoolean)
+ */
+public class BranchAndBoundStrategy implements RouteStrategy {
+
+    /**
+     * The maximum amount of stops the strategy is chosen for automatically.
+     * Up to here, the search is usually done within a second.
+     */
+    public static final int MAX_STOPS = 20;
+    /**
+     * The maximum amount of stops the strategy is used for when it's chosen by the user.
+     * The search time grows exponentially with the amount of stops, so bigger schedules are almost never done in time.
+     */
+    public static final int MAX_CHOSEN_STOPS = 40;
+    /**
+     * The minimum time budget the strategy is chosen automatically for.
+     */
+    public static final long MIN_BUDGET_MILLIS = 1000;
+
+
+    @Override
+    public String getName() {
+        return "Perfect route with branch and bound (up to " + MAX_CHOSEN_STOPS +
+                " stops, best route so far when the time is up)";
+    }
+
+    @Override
+    public boolean canHandle(int stops, long budgetMillis) {
+        return stops <= MAX_STOPS && budgetMillis >= MIN_BUDGET_MILLIS;
+    }
+
+    @Override
+    public boolean canHandleWhenChosen(int stops, long budgetMillis) {
+        return stops <= MAX_CHOSEN_STOPS;
+    }
+
+    @Override
+    public Route getRoute(Schedule schedule, long budgetMillis) {
+        assert (schedule != null) : "Schedule shouldn't be null";
+        assert (budgetMillis >= 0) : "BudgetMillis shouldn't be negative";
+
+        return RouteCalculator.getRouteBranchAndBound(schedule, budgetMillis, new AtomicBoolean(false));
+    }
+
+}
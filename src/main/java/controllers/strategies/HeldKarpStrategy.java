@@ -0,0 +1,47 @@
+package controllers.strategies;
+
+import controllers.RouteCalculator;
+import models.Route;
+import models.Schedule;
+
+/**
+ * Optimal route for small schedules.
+ *
+ * @see RouteCalculator#getRouteHeldKarp
+ */
+public class HeldKarpStrategy implements RouteStrategy {
+
+    /**
+     * The maximum amount of stops the strategy is chosen for automatically.
+     * Held-Karp can do more, but takes longer than a second from about 20 stops.
+     */
+    public static final int MAX_STOPS = 12;
+    /**
+     * The maximum amount of stops the strategy is used for when it's chosen by the user.
+     */
+    public static final int MAX_CHOSEN_STOPS = RouteCalculator.HELD_KARP_MAX_STOPS;
+
+
+    @Override
+    public String getName() {
+        return "Perfect route (up to " + MAX_CHOSEN_STOPS + " stops, slow from " + MAX_STOPS + " stops)";
+    }
+
+    @Override
+    public boolean canHandle(int stops, long budgetMillis) {
+        return stops <= MAX_STOPS;
+    }
+
+    @Override
+    public boolean canHandleWhenChosen(int stops, long budgetMillis) {
+        return stops <= MAX_CHOSEN_STOPS;
+    }
+
+    @Override
+    public Route getRoute(Schedule schedule, long budgetMillis) {
+        assert (schedule != null) : "Schedule shouldn't be null";
+
+        return RouteCalculator.getRouteHeldKarp(schedule);
+    }
+
+}
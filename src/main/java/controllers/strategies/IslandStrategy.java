@@ -0,0 +1,51 @@
+package controllers.strategies;
+
+import controllers.RouteCalculator;
+import models.Route;
+import models.Schedule;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Improves the route on several cores at the same time until the time budget is used up.
+ * Only worth it for bigger schedules, since smaller ones already get a (nearly) optimal route on one core.
+ *
+ * @see RouteCalculator#getRouteIslands
+ */
+public class IslandStrategy implements RouteStrategy {
+
+    /**
+     * The minimum amount of stops the strategy is used for.
+     */
+    public static final int MIN_STOPS = 100;
+    /**
+     * The maximum amount of stops the strategy is used for.
+     * Finding the closest neighbours of each stop for the local search is O(n^2).
+     */
+    public static final int MAX_STOPS = LocalSearchStrategy.MAX_STOPS;
+    /**
+     * The minimum time budget the strategy is used for.
+     * Each epoch needs time on every island before routes can be shared.
+     */
+    public static final long MIN_BUDGET_MILLIS = 500;
+
+
+    @Override
+    public String getName() {
+        return "Best route found on all cores within the time budget (" + MIN_STOPS + " to " + MAX_STOPS + " stops)";
+    }
+
+    @Override
+    public boolean canHandle(int stops, long budgetMillis) {
+        return stops >= MIN_STOPS && stops <= MAX_STOPS && budgetMillis >= MIN_BUDGET_MILLIS;
+    }
+
+    @Override
+    public Route getRoute(Schedule schedule, long budgetMillis) {
+        assert (schedule != null) : "Schedule shouldn't be null";
+        assert (budgetMillis >= 0) : "BudgetMillis shouldn't be negative";
+
+        return RouteCalculator.getRouteIslands(schedule, budgetMillis, new AtomicBoolean(false));
+    }
+
+}
@@ -0,0 +1,38 @@
+package controllers.strategies;
+
+import controllers.RouteCalculator;
+import models.Route;
+import models.Schedule;
+
+/**
+ * Fast Christofides route that is improved with local search once.
+ *
+ * @see RouteCalculator#getRouteChristofides(Schedule, boolean)
+ */
+public class LocalSearchStrategy implements RouteStrategy {
+
+    /**
+     * The maximum amount of stops the strategy is used for.
+     * Finding the closest neighbours of each stop for the local search is O(n^2).
+     */
+    public static final int MAX_STOPS = 10_000;
+
+
+    @Override
+    public String getName() {
+        return "Good route with local search (up to " + MAX_STOPS + " stops)";
+    }
+
+    @Override
+    public boolean canHandle(int stops, long budgetMillis) {
+        return stops <= MAX_STOPS;
+    }
+
+    @Override
+    public Route getRoute(Schedule schedule, long budgetMillis) {
+        assert (schedule != null) : "Schedule shouldn't be null";
+
+        return RouteCalculator.getRouteChristofides(schedule, true);
+    }
+
+}
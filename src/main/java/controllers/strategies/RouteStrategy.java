@@ -0,0 +1,43 @@
+package controllers.strategies;
+
+import models.Route;
+import models.Schedule;
+
+/**
+ * An algorithm that makes a route for a schedule.
+ * Registered in a RouteStrategySelector, which picks one based on the amount of stops and the time budget.
+ *
+ * @see RouteStrategySelector
+ */
+public interface RouteStrategy {
+
+    /**
+     * Short description of the strategy for in menus.
+     */
+    String getName();
+
+    /**
+     * Whether the strategy gives a route for the given amount of stops in a reasonable time.
+     *
+     * @param budgetMillis Milliseconds the calculation may take.
+     */
+    boolean canHandle(int stops, long budgetMillis);
+
+    /**
+     * Whether the strategy gives a route for the given amount of stops when the user chose it,
+     * so taking longer than a strategy that's chosen automatically is fine. Same as canHandle by default.
+     *
+     * @param budgetMillis Milliseconds the calculation may take.
+     */
+    default boolean canHandleWhenChosen(int stops, long budgetMillis) {
+        return canHandle(stops, budgetMillis);
+    }
+
+    /**
+     * Makes the route and sets it on the schedule.
+     *
+     * @param budgetMillis Milliseconds the calculation may take. Only strategies that work with a budget use it.
+     */
+    Route getRoute(Schedule schedule, long budgetMillis);
+
+}
@@ -0,0 +1,79 @@
+package controllers.strategies;
+
+import models.Route;
+import models.Schedule;
+
+import java.util.ArrayList;
+
+/**
+ * Picks a route strategy based on the amount of stops and the time budget.
+ * Strategies are checked in the order they were registered, so the best strategies should be registered first.
+ */
+public class RouteStrategySelector {
+
+    /**
+     * Selector with the default strategies: perfect routes for small schedules (with branch and bound when there's
+     * enough time for the ones that are too big for Held-Karp), local search for most schedules
+     * (on all cores for bigger ones) and a space filling curve for huge schedules.
+     */
+    public static RouteStrategySelector instance = createDefault();
+
+    private final ArrayList<RouteStrategy> strategies = new ArrayList<>();
+
+
+    private static RouteStrategySelector createDefault() {
+        RouteStrategySelector selector = new RouteStrategySelector();
+        selector.register(new HeldKarpStrategy());
+        selector.register(new BranchAndBoundStrategy());
+        selector.register(new IslandStrategy());
+        selector.register(new AnytimeStrategy());
+        selector.register(new LocalSearchStrategy());
+        selector.register(new SpaceFillingCurveStrategy());
+        return selector;
+    }
+
+
+    public ArrayList<RouteStrategy> getStrategies() {
+        return strategies;
+    }
+
+    /**
+     * Adds the strategy after the already registered strategies.
+     */
+    public void register(RouteStrategy strategy) {
+        assert (strategy != null) : "Strategy shouldn't be null";
+
+        strategies.add(strategy);
+    }
+
+
+    /**
+     * The first registered strategy that can handle the given amount of stops within the budget.
+     *
+     * @return The strategy. Null if none of them can handle it.
+     */
+    public RouteStrategy select(int stops, long budgetMillis) {
+        assert (stops >= 0) : "Stops shouldn't be negative";
+        assert (budgetMillis >= 0) : "BudgetMillis shouldn't be negative";
+
+        for (RouteStrategy strategy : strategies) {
+            if (strategy.canHandle(stops, budgetMillis)) return strategy;
+        }
+        return null;
+    }
+
+    /**
+     * Makes a route for the schedule with the selected strategy.
+     *
+     * @see #select
+     */
+    public Route getRoute(Schedule schedule, long budgetMillis) {
+        assert (schedule != null) : "Schedule shouldn't be null";
+
+        RouteStrategy strategy = select(schedule.size(), budgetMillis);
+        assert (strategy != null) : "No strategy can handle the schedule";
+
+        return strategy.getRoute(schedule, budgetMillis);
+    }
+
+}
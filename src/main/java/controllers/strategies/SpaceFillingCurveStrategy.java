@@ -0,0 +1,31 @@
+package controllers.strategies;
+
+import controllers.RouteCalculator;
+import models.Route;
+import models.Schedule;
+
+/**
+ * Rough route for any amount of stops.
+ *
+ * @see RouteCalculator#getRouteSpaceFillingCurve
+ */
+public class SpaceFillingCurveStrategy implements RouteStrategy {
+
+    @Override
+    public String getName() {
+        return "Rough route for huge schedules";
+    }
+
+    @Override
+    public boolean canHandle(int stops, long budgetMillis) {
+        return true;
+    }
+
+    @Override
+    public Route getRoute(Schedule schedule, long budgetMillis) {
+        assert (schedule != null) : "Schedule shouldn't be null";
+
+        return RouteCalculator.getRouteSpaceFillingCurve(schedule);
+    }
+
+}
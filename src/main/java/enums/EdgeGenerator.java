@@ -0,0 +1,15 @@
+package enums;
+
+/**
+ * Ways Graph.createEdges can connect the graph nodes.
+ */
+public enum EdgeGenerator {
+    /**
+     * The closest node left, right, top and bottom from each node. Can miss edges of the minimum spanning tree.
+     */
+    directional,
+    /**
+     * The closest node in each of the 8 octants around each node. Always contains a minimum spanning tree.
+     */
+    octant
+}
@@ -1,5 +1,7 @@
 package models;
 
+import java.util.Objects;
+
 public class Location {
 
     public final int x;
@@ -40,6 +42,11 @@ public class Location {
         return location.x == x && location.y == y;
     }
 
+    @Override
+    public int hashCode() {
+        return Objects.hash(x, y);
+    }
+
     @Override
     public String toString() {
         return "Location{" +
@@ -0,0 +1,47 @@
+package models;
+
+/**
+ * The route that was made for the schedule of an employee, with the name of the strategy that made it.
+ */
+public class PlannedRoute {
+
+    private final Employee employee;
+    private final String strategyName;
+    private final Route route;
+
+
+    public PlannedRoute(Employee employee, String strategyName, Route route) {
+        assert (employee != null) : "Employee shouldn't be null";
+        assert (strategyName != null) : "StrategyName shouldn't be null";
+
+        this.employee = employee;
+        this.strategyName = strategyName;
+        this.route = route;
+    }
+
+
+    public Employee getEmployee() {
+        return employee;
+    }
+
+    public String getStrategyName() {
+        return strategyName;
+    }
+
+    /**
+     * @return The route. Can be null, like the routes of some strategies.
+     */
+    public Route getRoute() {
+        return route;
+    }
+
+
+    @Override
+    public String toString() {
+        return "PlannedRoute{" +
+                "employee=" + employee.getName() +
+                ", strategyName=" + strategyName +
+                '}';
+    }
+
+}
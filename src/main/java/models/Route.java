@@ -26,6 +26,18 @@ public class Route extends ArrayList<Location> {
     }
 
 
+    /**
+     * Sum of distances from each location to the next in the route.
+     */
+    public int calcTotalDistance() {
+        int distance = 0;
+        for (int i = 1; i < size(); i++) {
+            distance += get(i - 1).getDrivingDistance(get(i));
+        }
+        return distance;
+    }
+
+
     @Override
     public String toString() {
         String result = "";
@@ -0,0 +1,45 @@
+package models;
+
+/**
+ * A route that was made shorter, with its total distance before and after.
+ */
+public class RouteImprovement {
+
+    private final Route route;
+    private final int distanceBefore;
+    private final int distanceAfter;
+
+
+    public RouteImprovement(Route route, int distanceBefore, int distanceAfter) {
+        assert (route != null) : "Route shouldn't be null";
+        assert (distanceBefore >= 0) : "DistanceBefore shouldn't be negative";
+        assert (distanceAfter >= 0) : "DistanceAfter shouldn't be negative";
+
+        this.route = route;
+        this.distanceBefore = distanceBefore;
+        this.distanceAfter = distanceAfter;
+    }
+
+
+    public Route getRoute() {
+        return route;
+    }
+
+    public int getDistanceBefore() {
+        return distanceBefore;
+    }
+
+    public int getDistanceAfter() {
+        return distanceAfter;
+    }
+
+
+    @Override
+    public String toString() {
+        return "RouteImprovement{" +
+                "distanceBefore=" + distanceBefore +
+                ", distanceAfter=" + distanceAfter +
+                '}';
+    }
+
+}
@@ -1,5 +1,9 @@
 package models;
 
+import controllers.DynamicSpanningTree;
+import models.graph.Graph;
+import models.graph.GraphNode;
+
 import java.util.ArrayList;
 
 /**
@@ -11,6 +15,23 @@ public class Schedule extends ArrayList<Complaint> {
      * Order in which to drive to the locations of the complaints.
      */
     private Route route;
+    /**
+     * Graph of the complaint locations, so route algorithms don't have to make it (and its distances) again.
+     * Kept up to date when a complaint is added or removed one at a time. Other changes make it invalid.
+     *
+     * @see #getGraph
+     */
+    private Graph graph;
+    /**
+     * The ArrayList modCount the graph was set at.
+     */
+    private int graphModCount;
+    /**
+     * Minimum spanning tree over the graph, kept up to date with the graph so the Kruskal route doesn't make it again.
+     *
+     * @see #getSpanningTree
+     */
+    private DynamicSpanningTree spanningTree;
 
 
     public void setRoute(Route route) {
@@ -19,6 +40,45 @@ public class Schedule extends ArrayList<Complaint> {
         this.route = route;
     }
 
+    /**
+     * The graph that was set for the current complaints.
+     *
+     * @return The graph. Null if it wasn't set or complaints were added or removed since.
+     */
+    public Graph getGraph() {
+        if (graphModCount != modCount) return null;
+        return graph;
+    }
+
+    public void setGraph(Graph graph) {
+        assert (graph != null) : "Graph shouldn't be null";
+
+        this.graph = graph;
+        graphModCount = modCount;
+    }
+
+    /**
+     * The spanning tree that was set for the current graph.
+     *
+     * @return The tree. Null if it wasn't set or the graph isn't up to date.
+     */
+    public DynamicSpanningTree getSpanningTree() {
+        Graph current = getGraph();
+        if (current == null || spanningTree == null || spanningTree.getGraph() != current) return null;
+        return spanningTree;
+    }
+
+    /**
+     * Sets the spanning tree over the current graph. Complaints that are added or removed one at a time
+     * then change the graph through the tree.
+     */
+    public void setSpanningTree(DynamicSpanningTree spanningTree) {
+        assert (spanningTree != null) : "Spanning tree shouldn't be null";
+        assert (spanningTree.getGraph() == getGraph()) : "Spanning tree should be over the current graph";
+
+        this.spanningTree = spanningTree;
+    }
+
     public int getTotalEstimatedTime() {
         int total = 0;
         for (Complaint complaint : this) {
@@ -28,6 +88,75 @@ public class Schedule extends ArrayList<Complaint> {
     }
 
 
+    /**
+     * Adds the complaint and inserts its location into the graph and the spanning tree,
+     * so they don't have to be made again.
+     */
+    @Override
+    public boolean add(Complaint complaint) {
+        Graph current = getGraph();
+        DynamicSpanningTree tree = getSpanningTree();
+        super.add(complaint);
+        if (current != null) {
+            GraphNode node = new GraphNode(complaint.getHome().getLocation());
+            if (tree != null) {
+                tree.insert(node);
+            } else {
+                current.insertNode(node);
+            }
+            graphModCount = modCount;
+        }
+        return true;
+    }
+
+    /**
+     * Removes the complaint and removes its location from the graph and the spanning tree,
+     * if no other complaint is at the same location.
+     */
+    @Override
+    public Complaint remove(int index) {
+        Graph current = getGraph();
+        DynamicSpanningTree tree = getSpanningTree();
+        Complaint removed = super.remove(index);
+        if (current != null) {
+            Location location = removed.getHome().getLocation();
+            boolean used = false;
+            for (Complaint complaint : this) {
+                if (complaint.getHome().getLocation().equals(location)) {
+                    used = true;
+                    break;
+                }
+            }
+
+            // Index 0 is the home node, which stays even if there's a complaint at the same location.
+            int nodeIndex = current.indexOf(new GraphNode(location));
+            if (!used && nodeIndex > 0 && tree != null) {
+                tree.remove(nodeIndex);
+            } else if (!used && nodeIndex > 0) {
+                current.removeNode(nodeIndex);
+            }
+            graphModCount = modCount;
+        }
+        return removed;
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        int index = indexOf(o);
+        if (index == -1) return false;
+
+        remove(index);
+        return true;
+    }
+
+    @Override
+    public Complaint set(int index, Complaint complaint) {
+        // Set doesn't change modCount, but does make the graph and the spanning tree outdated.
+        graph = null;
+        spanningTree = null;
+        return super.set(index, complaint);
+    }
+
     @Override
     public String toString() {
         String result = "";
@@ -0,0 +1,105 @@
+package models.graph;
+
+import java.util.Collection;
+
+/**
+ * Immutable adjacency of a graph in compressed sparse row form.
+ * The neighbours of node i are targets[getStart(i)] to targets[getEnd(i) - 1], with the edge distance at the same
+ * place in weights. Nodes are graph indexes, so neighbours can be walked without hashing or boxing.
+ * Each undirected edge is stored once for both of its nodes.
+ *
+ * @see Graph#getCsrGraph
+ */
+public class CsrGraph {
+
+    private final int size;
+    /**
+     * The neighbours of node i start at offsets[i] and end before offsets[i + 1].
+     */
+    private final int[] offsets;
+    private final int[] targets;
+    private final int[] weights;
+
+
+    /**
+     * @param size  Amount of nodes. The edge indexes should be lower than this.
+     * @param edges The edges. Neighbours are in the same order as the edges they come from.
+     */
+    public CsrGraph(int size, Collection<GraphEdge> edges) {
+        assert (size >= 0) : "Size shouldn't be negative";
+        assert (edges != null) : "Edges shouldn't be null";
+
+        this.size = size;
+
+        // Counting sort of both ends of every edge by node.
+        offsets = new int[size + 1];
+        for (GraphEdge edge : edges) {
+            assert (edge.index2 < size) : "Edge index is out of bounds";
+
+            offsets[edge.index1 + 1]++;
+            offsets[edge.index2 + 1]++;
+        }
+        for (int i = 0; i < size; i++) {
+            offsets[i + 1] += offsets[i];
+        }
+
+        targets = new int[offsets[size]];
+        weights = new int[offsets[size]];
+        int[] filled = new int[size];
+        System.arraycopy(offsets, 0, filled, 0, size);
+        for (GraphEdge edge : edges) {
+            int position1 = filled[edge.index1]++;
+            targets[position1] = edge.index2;
+            weights[position1] = edge.distance;
+
+            int position2 = filled[edge.index2]++;
+            targets[position2] = edge.index1;
+            weights[position2] = edge.distance;
+        }
+    }
+
+
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Amount of undirected edges.
+     */
+    public int getEdgeCount() {
+        return targets.length / 2;
+    }
+
+    public int getDegree(int node) {
+        return offsets[node + 1] - offsets[node];
+    }
+
+    /**
+     * Position of the first neighbour of the node.
+     */
+    public int getStart(int node) {
+        return offsets[node];
+    }
+
+    /**
+     * Position after the last neighbour of the node.
+     */
+    public int getEnd(int node) {
+        return offsets[node + 1];
+    }
+
+    /**
+     * The neighbour node at the given position.
+     */
+    public int getTarget(int position) {
+        return targets[position];
+    }
+
+    /**
+     * The distance to the neighbour at the given position.
+     */
+    public int getWeight(int position) {
+        return weights[position];
+    }
+
+}
@@ -0,0 +1,224 @@
+package models.graph;
+
+import models.Location;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Driving distances between all locations of a list, looked up by their index in the list.
+ * The distances are calculated once and saved in a flat array, so a lookup is a single array read.
+ * Lists longer than MAX_DENSE_SIZE would take too much memory, so their distances are calculated on lookup
+ * from the coordinates instead, which are also kept in arrays.
+ * Graph.insertNode and Graph.removeNode change the matrix in O(n) instead of making a new one.
+ */
+public class DistanceMatrix {
+
+    /**
+     * The maximum amount of locations to save all distances for. Takes 16MB at this size.
+     */
+    public static final int MAX_DENSE_SIZE = 2048;
+
+    private int size;
+    /**
+     * The coordinates of each location. Can be longer than size after locations were added.
+     */
+    private int[] xs;
+    private int[] ys;
+    /**
+     * Whether xs and ys are the arrays given to the constructor, which shouldn't be changed.
+     */
+    private boolean givenCoordinates = true;
+    /**
+     * The distance from location i to location j is at index i * stride + j.
+     * Null if there are more than MAX_DENSE_SIZE locations.
+     */
+    private int[] distances;
+    /**
+     * The length of a row in distances, at least size so locations can be added without making a new array.
+     */
+    private int stride;
+
+
+    public DistanceMatrix(List<? extends Location> locations) {
+        this(getXs(locations), getYs(locations));
+    }
+
+    /**
+     * @param xs The x of each location. Kept, so it shouldn't be changed afterwards.
+     * @param ys The y of each location. Kept, so it shouldn't be changed afterwards.
+     */
+    public DistanceMatrix(int[] xs, int[] ys) {
+        assert (xs != null) : "Xs shouldn't be null";
+        assert (ys != null) : "Ys shouldn't be null";
+        assert (xs.length == ys.length) : "Xs and ys should have the same length";
+
+        size = xs.length;
+        stride = size;
+        this.xs = xs;
+        this.ys = ys;
+
+        if (size > MAX_DENSE_SIZE) {
+            distances = null;
+            return;
+        }
+
+        distances = new int[size * size];
+        for (int i = 0; i < size; i++) {
+            for (int j = i + 1; j < size; j++) {
+                int distance = calc(i, j);
+                distances[i * size + j] = distance;
+                distances[j * size + i] = distance;
+            }
+        }
+    }
+
+
+    private static int[] getXs(List<? extends Location> locations) {
+        assert (locations != null) : "Locations shouldn't be null";
+
+        int[] xs = new int[locations.size()];
+        for (int i = 0; i < xs.length; i++) {
+            xs[i] = locations.get(i).x;
+        }
+        return xs;
+    }
+
+    private static int[] getYs(List<? extends Location> locations) {
+        assert (locations != null) : "Locations shouldn't be null";
+
+        int[] ys = new int[locations.size()];
+        for (int i = 0; i < ys.length; i++) {
+            ys[i] = locations.get(i).y;
+        }
+        return ys;
+    }
+
+
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Whether all distances are saved, instead of calculated on lookup.
+     */
+    public boolean isDense() {
+        return distances != null;
+    }
+
+    public int get(int index1, int index2) {
+        if (distances != null) return distances[index1 * stride + index2];
+        return calc(index1, index2);
+    }
+
+    private int calc(int index1, int index2) {
+        return Math.abs(xs[index1] - xs[index2]) + Math.abs(ys[index1] - ys[index2]);
+    }
+
+
+    /**
+     * Adds a location at index size. Takes O(size), apart from when the rows are full,
+     * then the row length doubles, so it's O(size) on average too.
+     * Past MAX_DENSE_SIZE locations the distances are calculated on lookup from then on.
+     *
+     * @see Graph#insertNode
+     */
+    void add(int x, int y) {
+        ensureCoordinates(size + 1);
+        xs[size] = x;
+        ys[size] = y;
+
+        if (distances != null && size + 1 > MAX_DENSE_SIZE) {
+            distances = null;
+        } else if (distances != null) {
+            if (size + 1 > stride) setStride(Math.min(Math.max(stride * 2, 16), MAX_DENSE_SIZE));
+            for (int i = 0; i < size; i++) {
+                int distance = calc(i, size);
+                distances[i * stride + size] = distance;
+                distances[size * stride + i] = distance;
+            }
+            distances[size * stride + size] = 0;
+        }
+        size++;
+    }
+
+    /**
+     * Removes the location at the given index in O(size). The last location takes its place, like in Graph.removeNode.
+     *
+     * @see Graph#removeNode
+     */
+    void remove(int index) {
+        assert (index >= 0 && index < size) : "Index is out of bounds";
+
+        int last = size - 1;
+        ensureCoordinates(size);
+        if (index != last) {
+            xs[index] = xs[last];
+            ys[index] = ys[last];
+            if (distances != null) {
+                for (int i = 0; i < last; i++) {
+                    int distance = distances[last * stride + i];
+                    distances[index * stride + i] = distance;
+                    distances[i * stride + index] = distance;
+                }
+                distances[index * stride + index] = 0;
+            }
+        }
+        size--;
+    }
+
+    /**
+     * Makes sure the coordinate arrays have room for the given amount of locations and aren't the given arrays.
+     */
+    private void ensureCoordinates(int capacity) {
+        if (!givenCoordinates && xs.length >= capacity) return;
+
+        int length = Math.max(capacity, xs.length >= capacity ? xs.length : xs.length * 2);
+        xs = Arrays.copyOf(xs, length);
+        ys = Arrays.copyOf(ys, length);
+        givenCoordinates = false;
+    }
+
+    private void setStride(int newStride) {
+        int[] newDistances = new int[newStride * newStride];
+        for (int i = 0; i < size; i++) {
+            System.arraycopy(distances, i * stride, newDistances, i * newStride, size);
+        }
+        distances = newDistances;
+        stride = newStride;
+    }
+
+
+    /**
+     * Sum of distances from each index in the tour to the next. Includes going back to the first index at the end.
+     */
+    public int calcTourDistance(int[] tour) {
+        assert (tour != null) : "Tour shouldn't be null";
+
+        if (tour.length == 0) return 0;
+
+        int distance = 0;
+        for (int i = 1; i < tour.length; i++) {
+            distance += get(tour[i - 1], tour[i]);
+        }
+        return distance + get(tour[tour.length - 1], tour[0]);
+    }
+
+    /**
+     * Sum of distances of going from index 0 (the home node in a graph) through the order and back to index 0.
+     *
+     * @param order Indexes to visit. Shouldn't contain index 0.
+     */
+    public int calcOrderDistance(int[] order) {
+        assert (order != null) : "Order shouldn't be null";
+
+        int distance = 0;
+        int previous = 0;
+        for (int index : order) {
+            distance += get(previous, index);
+            previous = index;
+        }
+        return distance + get(previous, 0);
+    }
+
+}
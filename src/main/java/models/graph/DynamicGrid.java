@@ -0,0 +1,240 @@
+package models.graph;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntConsumer;
+import java.util.function.IntPredicate;
+
+/**
+ * Uniform grid over the graph nodes like SpatialGrid, but nodes can be added, removed and given another index.
+ * Used by Graph.insertNode and Graph.removeNode to only check the nodes around the changed node.
+ * Nodes outside the area the grid was made for are kept in a list that every search checks,
+ * until there are enough of them to make a new grid.
+ * Like SpatialGrid, a search still checks all cells up to the closest node it's looking for,
+ * so nodes next to a big empty area can check up to all O(n) cells.
+ *
+ * @see Graph#insertNode
+ * @see Graph#removeNode
+ */
+class DynamicGrid {
+
+    /**
+     * Average amount of nodes per cell the cell size is based on.
+     */
+    private static final int NODES_PER_CELL = 2;
+    /**
+     * The node index in nodeCells for nodes in the outside list.
+     */
+    private static final int OUTSIDE = -1;
+
+    private final int minX;
+    private final int minY;
+    private final int maxX;
+    private final int maxY;
+    private final int cellSize;
+    private final int cellsX;
+    private final int cellsY;
+    /**
+     * The amount of nodes the grid was made for.
+     */
+    private final int madeSize;
+    /**
+     * Node indexes by cell. The nodes of cell i are cells[i][0] to cells[i][cellCounts[i] - 1].
+     * Cell (x, y) is cell y * cellsX + x.
+     */
+    private final int[][] cells;
+    private final int[] cellCounts;
+    /**
+     * Nodes outside the area of the grid, in any order.
+     */
+    private int[] outside = new int[4];
+    private int outsideCount;
+    /**
+     * The cell of each node index, or OUTSIDE.
+     */
+    private int[] nodeCells;
+    /**
+     * The position of each node index in its cell, or in the outside list.
+     */
+    private int[] nodePositions;
+
+
+    DynamicGrid(List<GraphNode> nodes) {
+        assert (nodes != null) : "Nodes shouldn't be null";
+
+        int size = nodes.size();
+        int minX = Integer.MAX_VALUE;
+        int minY = Integer.MAX_VALUE;
+        int maxX = Integer.MIN_VALUE;
+        int maxY = Integer.MIN_VALUE;
+        for (GraphNode node : nodes) {
+            minX = Math.min(minX, node.x);
+            minY = Math.min(minY, node.y);
+            maxX = Math.max(maxX, node.x);
+            maxY = Math.max(maxY, node.y);
+        }
+        if (size == 0) {
+            minX = minY = maxX = maxY = 0;
+        }
+        this.minX = minX;
+        this.minY = minY;
+        this.maxX = maxX;
+        this.maxY = maxY;
+
+        long width = (long) maxX - minX + 1;
+        long height = (long) maxY - minY + 1;
+        int cellSize = (int) Math.max(1, Math.sqrt((double) width * height * NODES_PER_CELL / Math.max(size, 1)));
+        // Nodes on a line would give a lot of empty cells, so the amount of cells is limited.
+        while ((width / cellSize + 1) * (height / cellSize + 1) > 4L * size + 16) {
+            cellSize *= 2;
+        }
+        this.cellSize = cellSize;
+        cellsX = (int) (width / cellSize + 1);
+        cellsY = (int) (height / cellSize + 1);
+        madeSize = size;
+
+        cells = new int[cellsX * cellsY][];
+        cellCounts = new int[cellsX * cellsY];
+        nodeCells = new int[Math.max(size, 4)];
+        nodePositions = new int[Math.max(size, 4)];
+        for (int i = 0; i < size; i++) {
+            add(i, nodes.get(i));
+        }
+    }
+
+
+    /**
+     * Whether so many nodes were added, removed or put outside the grid that a new grid would be faster.
+     */
+    boolean isOutdated(int size) {
+        return outsideCount > 16 + madeSize / 8 || size > 2 * madeSize + 16 || size < madeSize / 4;
+    }
+
+    /**
+     * Adds the node with the given index. The index shouldn't be in the grid yet.
+     */
+    void add(int index, GraphNode node) {
+        assert (node != null) : "Node shouldn't be null";
+
+        if (index >= nodeCells.length) {
+            int capacity = Math.max(index + 1, nodeCells.length * 2);
+            nodeCells = Arrays.copyOf(nodeCells, capacity);
+            nodePositions = Arrays.copyOf(nodePositions, capacity);
+        }
+
+        if (node.x < minX || node.x > maxX || node.y < minY || node.y > maxY) {
+            if (outsideCount == outside.length) outside = Arrays.copyOf(outside, outsideCount * 2);
+            nodeCells[index] = OUTSIDE;
+            nodePositions[index] = outsideCount;
+            outside[outsideCount++] = index;
+            return;
+        }
+
+        int cell = getCellY(node.y) * cellsX + getCellX(node.x);
+        if (cells[cell] == null) {
+            cells[cell] = new int[NODES_PER_CELL];
+        } else if (cellCounts[cell] == cells[cell].length) {
+            cells[cell] = Arrays.copyOf(cells[cell], cellCounts[cell] * 2);
+        }
+        nodeCells[index] = cell;
+        nodePositions[index] = cellCounts[cell];
+        cells[cell][cellCounts[cell]++] = index;
+    }
+
+    /**
+     * Removes the node with the given index. The last node in its cell takes its position.
+     */
+    void remove(int index) {
+        int[] list = nodeCells[index] == OUTSIDE ? outside : cells[nodeCells[index]];
+        int count = nodeCells[index] == OUTSIDE ? --outsideCount : --cellCounts[nodeCells[index]];
+        int moved = list[count];
+        list[nodePositions[index]] = moved;
+        nodePositions[moved] = nodePositions[index];
+    }
+
+    /**
+     * Gives the node at index from the index to, like Graph.removeNode does with the last node.
+     * The node at index to should have been removed already.
+     */
+    void move(int from, int to) {
+        int[] list = nodeCells[from] == OUTSIDE ? outside : cells[nodeCells[from]];
+        list[nodePositions[from]] = to;
+        nodeCells[to] = nodeCells[from];
+        nodePositions[to] = nodePositions[from];
+    }
+
+
+    private int getCellX(int x) {
+        return (int) (((long) Math.min(Math.max(x, minX), maxX) - minX) / cellSize);
+    }
+
+    private int getCellY(int y) {
+        return (int) (((long) Math.min(Math.max(y, minY), maxY) - minY) / cellSize);
+    }
+
+    /**
+     * Gives the nodes around the location to the visitor, the nodes in the closest cells first.
+     * The nodes outside the grid are given first. After each ring of cells around the location, done is asked
+     * with the amount of rings so far, so it can end the search.
+     *
+     * @see #getMinDistance
+     * @see #isPastSide
+     */
+    void search(int x, int y, IntConsumer visitor, IntPredicate done) {
+        assert (visitor != null) : "Visitor shouldn't be null";
+        assert (done != null) : "Done shouldn't be null";
+
+        for (int i = 0; i < outsideCount; i++) {
+            visitor.accept(outside[i]);
+        }
+
+        int cellX = getCellX(x);
+        int cellY = getCellY(y);
+        int maxRing = Math.max(cellsX, cellsY);
+        for (int ring = 0; ring <= maxRing; ring++) {
+            // Walk the cells at exactly ring cells from the location cell.
+            for (int cy = cellY - ring; cy <= cellY + ring; cy++) {
+                if (cy < 0 || cy >= cellsY) continue;
+
+                boolean edgeRow = cy == cellY - ring || cy == cellY + ring;
+                int step = edgeRow ? 1 : 2 * ring;
+                for (int cx = cellX - ring; cx <= cellX + ring; cx += step) {
+                    if (cx < 0 || cx >= cellsX) continue;
+
+                    int cell = cy * cellsX + cx;
+                    for (int i = 0; i < cellCounts[cell]; i++) {
+                        visitor.accept(cells[cell][i]);
+                    }
+                }
+            }
+            if (done.test(ring)) return;
+        }
+    }
+
+    /**
+     * The lowest distance from the location a search is at to a node in the grid that wasn't given yet,
+     * after the given amount of rings.
+     * It holds for locations outside the grid too, since the grid nodes are further away from those.
+     */
+    long getMinDistance(int ring) {
+        return (long) ring * cellSize;
+    }
+
+    /**
+     * Whether a search from the location has given all nodes in the given direction after the given amount of rings,
+     * for directions where nodes are at least as far away in that direction as in the other.
+     * The direction is LEFT, RIGHT, TOP or BOTTOM from SpatialGrid.
+     * Always false for locations outside the grid, since the sides don't limit how far away nodes are from those.
+     */
+    boolean isPastSide(int x, int y, int direction, int ring) {
+        if (x < minX || x > maxX || y < minY || y > maxY) return false;
+
+        return switch (direction) {
+            case SpatialGrid.LEFT -> getCellX(x) - ring < 0;
+            case SpatialGrid.RIGHT -> getCellX(x) + ring > cellsX - 1;
+            case SpatialGrid.TOP -> getCellY(y) - ring < 0;
+            default -> getCellY(y) + ring > cellsY - 1;
+        };
+    }
+
+}
@@ -0,0 +1,146 @@
+package models.graph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Hash table of edges by their key, with open addressing.
+ * Keys are kept in a long array next to the edges, so a lookup hashes and compares primitive longs
+ * and there are no entry objects like in a HashMap.
+ *
+ * @see GraphEdge#createKey
+ */
+public class EdgeTable {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * The key of the edge in the same slot of edges.
+     */
+    private long[] keys;
+    /**
+     * The edges. A null slot is empty.
+     */
+    private GraphEdge[] edges;
+    private int size = 0;
+
+
+    public EdgeTable() {
+        keys = new long[INITIAL_CAPACITY];
+        edges = new GraphEdge[INITIAL_CAPACITY];
+    }
+
+
+    public int size() {
+        return size;
+    }
+
+    public GraphEdge get(long key) {
+        return edges[findSlot(key)];
+    }
+
+    public boolean containsKey(long key) {
+        return get(key) != null;
+    }
+
+    /**
+     * Adds the edge if there's no edge with the same key yet.
+     *
+     * @return The edge that was in the table already. Null if the edge was added.
+     */
+    public GraphEdge putIfAbsent(GraphEdge edge) {
+        assert (edge != null) : "Edge shouldn't be null";
+
+        int slot = findSlot(edge.key);
+        if (edges[slot] != null) return edges[slot];
+
+        keys[slot] = edge.key;
+        edges[slot] = edge;
+        size++;
+        // Keep at least half the slots empty so the probe sequences stay short.
+        if (size * 2 > edges.length) resize(edges.length * 2);
+        return null;
+    }
+
+    /**
+     * Removes the edge with the given key.
+     * The edges after it in the probe sequence are moved back, so no lookup passes an empty slot before its edge.
+     *
+     * @return The removed edge. Null if there was no edge with the key.
+     */
+    public GraphEdge remove(long key) {
+        int slot = findSlot(key);
+        GraphEdge removed = edges[slot];
+        if (removed == null) return null;
+
+        int mask = edges.length - 1;
+        int empty = slot;
+        edges[empty] = null;
+        for (int next = (empty + 1) & mask; edges[next] != null; next = (next + 1) & mask) {
+            // An edge can move to the empty slot if that slot is between its hash slot and its current slot.
+            int home = hash(keys[next]) & mask;
+            if (((next - home) & mask) >= ((next - empty) & mask)) {
+                keys[empty] = keys[next];
+                edges[empty] = edges[next];
+                edges[next] = null;
+                empty = next;
+            }
+        }
+        size--;
+        return removed;
+    }
+
+    public void clear() {
+        Arrays.fill(edges, null);
+        size = 0;
+    }
+
+    /**
+     * All edges in the table, in no particular order.
+     */
+    public ArrayList<GraphEdge> values() {
+        ArrayList<GraphEdge> values = new ArrayList<>(size);
+        for (GraphEdge edge : edges) {
+            if (edge != null) values.add(edge);
+        }
+        return values;
+    }
+
+
+    /**
+     * The slot with the given key, or the empty slot where it should be added.
+     * Uses linear probing: if the slot of the hash is taken by another key, the next slot is tried.
+     */
+    private int findSlot(long key) {
+        int mask = edges.length - 1;
+        int slot = hash(key) & mask;
+        while (edges[slot] != null && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * Spreads the bits of the key, since the keys of close nodes only differ in a few low bits.
+     */
+    private static int hash(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32));
+    }
+
+    private void resize(int capacity) {
+        long[] oldKeys = keys;
+        GraphEdge[] oldEdges = edges;
+        keys = new long[capacity];
+        edges = new GraphEdge[capacity];
+
+        for (int i = 0; i < oldEdges.length; i++) {
+            if (oldEdges[i] == null) continue;
+
+            int slot = findSlot(oldKeys[i]);
+            keys[slot] = oldKeys[i];
+            edges[slot] = oldEdges[i];
+        }
+    }
+
+}
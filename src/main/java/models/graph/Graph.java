@@ -1,6 +1,9 @@
 package models.graph;
 
+import enums.EdgeGenerator;
+
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 
 public class Graph extends ArrayList<GraphNode> {
@@ -11,7 +14,75 @@ public class Graph extends ArrayList<GraphNode> {
      */
     public static final GraphNode HOMENODE = new GraphNode(500, 500);
 
-    private final HashMap<String, GraphEdge> edges = new HashMap<>();
+    /**
+     * The amount of grid rings around an inserted node that are checked for nodes that get it as closest node.
+     */
+    private static final int FAR_RINGS = 4;
+
+    private final EdgeTable edges = new EdgeTable();
+    /**
+     * The generator the current edges were made with. Null if there are no edges yet.
+     */
+    private EdgeGenerator edgeGenerator;
+    /**
+     * The node each edge was made for: for node i, the closest node in direction or octant k is at i * 4 + k,
+     * or -1 if there's none. An edge stays as long as one of its nodes has the other as closest node.
+     * Used to repair the edges when a node is inserted or removed.
+     *
+     * @see #insertNode
+     * @see #removeNode
+     */
+    private int[] neighbours = new int[0];
+    /**
+     * The slots that have each node as closest node, and a grid over the nodes,
+     * so insertNode and removeNode only check the nodes around the changed node.
+     * Made on the first repair after the edges were made.
+     */
+    private ReverseNeighbours reverseNeighbours;
+    private DynamicGrid grid;
+    /**
+     * The ArrayList modCount the edges are up to date with.
+     * Nodes that were added or removed without insertNode and removeNode make the edges outdated.
+     */
+    private int edgesModCount;
+    /**
+     * Adjacency of the current edges. Made on the first getCsrGraph call after the edges changed.
+     *
+     * @see #getCsrGraph
+     */
+    private CsrGraph csrGraph;
+    /**
+     * Distances between the nodes by their index. Made on the first getDistanceMatrix call.
+     * Changed by insertNode and removeNode, made again when nodes were added or removed in other ways after that.
+     *
+     * @see #getDistanceMatrix
+     */
+    private DistanceMatrix distanceMatrix;
+    /**
+     * The ArrayList modCount the distanceMatrix was made at.
+     */
+    private int distanceMatrixModCount;
+    /**
+     * The index of each node by its key, so a node can be found without checking every node.
+     * Kept up to date when nodes are added to the end and by removeNode.
+     * Made again on the next lookup after other changes.
+     *
+     * @see #getRegistry
+     */
+    private NodeRegistry registry;
+    /**
+     * The ArrayList modCount the registry is up to date with.
+     */
+    private int registryModCount;
+    /**
+     * The coordinates of the nodes from the GraphBuilder that made the graph, for the first distance matrix.
+     * Only used as long as the modCount is still coordinatesModCount.
+     *
+     * @see #getDistanceMatrix
+     */
+    private int[] xs;
+    private int[] ys;
+    private int coordinatesModCount;
 
 
     public Graph() {
@@ -22,22 +93,143 @@ public class Graph extends ArrayList<GraphNode> {
         super(g);
     }
 
+    /**
+     * Graph with a node for each coordinate, starting with the home node, like GraphBuilder collects them.
+     * Keeps the registry and the coordinates of the builder, so neither has to be made from the nodes again.
+     *
+     * @param registry The index of each coordinate by its node key. Kept, so it shouldn't be changed afterwards.
+     * @see GraphBuilder#build
+     */
+    Graph(int[] xs, int[] ys, NodeRegistry registry) {
+        super(xs.length);
+        assert (xs.length == ys.length) : "Xs and ys should have the same length";
+        assert (xs.length > 0 && HOMENODE.x == xs[0] && HOMENODE.y == ys[0]) : "First node should be the home node";
+        assert (registry != null && registry.size() == xs.length) : "Registry should have every coordinate once";
+
+        add(HOMENODE);
+        for (int i = 1; i < xs.length; i++) {
+            add(new GraphNode(xs[i], ys[i]));
+        }
+        this.registry = registry;
+        registryModCount = modCount;
+        this.xs = xs;
+        this.ys = ys;
+        coordinatesModCount = modCount;
+    }
+
 
-    public HashMap<String, GraphEdge> getEdges() {
+    public EdgeTable getEdges() {
         return edges;
     }
 
-    private void addEdge(GraphNode node1, GraphNode node2, int distance) {
-        assert (node1 != null) : "Node1 shouldn't be null";
-        assert (node2 != null) : "Node2 shouldn't be null";
-        assert (distance >= 1) : "Distance shouldn't be less than 1";
+    /**
+     * Distances between the nodes, looked up by their index in the graph.
+     * Only calculated once as long as no nodes are added or removed other than with insertNode and removeNode.
+     * Those change the matrix in O(n), so a matrix that was returned before changes with the graph.
+     */
+    public DistanceMatrix getDistanceMatrix() {
+        if (distanceMatrix == null || distanceMatrixModCount != modCount) {
+            boolean builderCoordinates = xs != null && coordinatesModCount == modCount;
+            distanceMatrix = builderCoordinates ? new DistanceMatrix(xs, ys) : new DistanceMatrix(this);
+            distanceMatrixModCount = modCount;
+        }
+        return distanceMatrix;
+    }
+
+    /**
+     * The index of each node by its key. Nodes that are in the graph more than once have the index of the first.
+     */
+    public NodeRegistry getRegistry() {
+        if (registry == null || registryModCount != modCount) {
+            registry = new NodeRegistry();
+            for (int i = 0; i < size(); i++) {
+                registry.putIfAbsent(get(i).key, i);
+            }
+            registryModCount = modCount;
+        }
+        return registry;
+    }
+
+    /**
+     * Adds the node if there's no node at the same location in the graph yet.
+     *
+     * @return The index of the node at the location of the given node.
+     */
+    public int addIfAbsent(GraphNode node) {
+        assert (node != null) : "Node shouldn't be null";
+
+        int index = getRegistry().get(node.key);
+        if (index != -1) return index;
+
+        add(node);
+        return size() - 1;
+    }
+
+    @Override
+    public boolean add(GraphNode node) {
+        boolean registryUpToDate = registry != null && registryModCount == modCount;
+        super.add(node);
+        if (registryUpToDate) {
+            registry.putIfAbsent(node.key, size() - 1);
+            registryModCount = modCount;
+        }
+        return true;
+    }
+
+    @Override
+    public GraphNode set(int index, GraphNode node) {
+        // Set doesn't change modCount, but does make the distance matrix, registry, coordinates and edges outdated.
+        distanceMatrix = null;
+        registry = null;
+        xs = null;
+        ys = null;
+        edgesModCount = -1;
+        return super.set(index, node);
+    }
 
-        GraphEdge edge = new GraphEdge(node1, node2, distance);
-        edges.putIfAbsent(edge.id, edge);
+    /**
+     * Looks the node up in the registry instead of checking every node. Contains uses this too.
+     */
+    @Override
+    public int indexOf(Object o) {
+        if (!(o instanceof GraphNode node)) return -1;
+
+        return getRegistry().get(node.key);
+    }
+
+    private boolean hasEdges() {
+        return edges.size() != 0 && edgesModCount == modCount;
+    }
+
+    /**
+     * Whether the graph has edges made with the given generator that are up to date.
+     */
+    public boolean hasEdges(EdgeGenerator generator) {
+        return hasEdges() && edgeGenerator == generator;
+    }
+
+    private void addEdge(int index1, int index2) {
+        GraphNode node1 = get(index1);
+        GraphNode node2 = get(index2);
+        // Don't make an object for edges that were added already.
+        if (edges.containsKey(GraphEdge.createKey(index1, index2))) return;
+
+        edges.putIfAbsent(new GraphEdge(node1, index1, node2, index2, node1.getDrivingDistance(node2)));
+    }
+
+    /**
+     * The neighbours of each node over the current edges, by graph index.
+     * Only made once as long as the edges and the amount of nodes don't change.
+     */
+    public CsrGraph getCsrGraph() {
+        if (csrGraph == null || csrGraph.getSize() != size()) {
+            csrGraph = new CsrGraph(size(), edges.values());
+        }
+        return csrGraph;
     }
 
     public HashMap<GraphNode, ArrayList<GraphNode>> getNodeConnections() {
-        return getNodeConnections(new ArrayList<>(edges.values()));
+        return getNodeConnections(edges.values());
     }
 
     public static HashMap<GraphNode, ArrayList<GraphNode>> getNodeConnections(ArrayList<GraphEdge> edges) {
@@ -57,80 +249,421 @@ public class Graph extends ArrayList<GraphNode> {
     /**
      * Generates edges for the graph if there are none yet.
      * Each node checks for the closest node left, right, top and bottom from it, creating a web.
+     * The closest nodes are found with a SpatialGrid, so only nodes in the cells around a node are checked.
      */
     public void createEdges() {
-        if (edges.size() != 0) return;
-
-        for (GraphNode node : this) {
-            GraphNode left = null;
-            GraphNode right = null;
-            GraphNode top = null;
-            GraphNode bottom = null;
-
-            // We want the lowest distance, so the start value should be the highest.
-            int leftDistance = Integer.MAX_VALUE;
-            int rightDistance = Integer.MAX_VALUE;
-            int topDistance = Integer.MAX_VALUE;
-            int bottomDistance = Integer.MAX_VALUE;
-
-            for (GraphNode edgeNode : this) {
-                // Ignore self.
-                if (edgeNode.equals(node)) continue;
-
-                int deltaX = node.getDeltaX(edgeNode);
-                int deltaY = node.getDeltaY(edgeNode);
-                int distance = node.getDrivingDistance(edgeNode);
-                // Decide if the node should compete for horizontal (left or right) or vertical (up or down)
-                // depending on which absolute axis distance is the shortest.
-                if (Math.abs(deltaX) > Math.abs(deltaY)) {
-                    if (deltaX < 0) {
-                        if (distance < leftDistance) {
-                            leftDistance = distance;
-                            left = edgeNode;
-                        }
-                    } else {
-                        if (distance < rightDistance) {
-                            rightDistance = distance;
-                            right = edgeNode;
-                        }
-                    }
-                } else {
-                    if (deltaY < 0) {
-                        if (distance < topDistance) {
-                            topDistance = distance;
-                            top = edgeNode;
-                        }
-                    } else {
-                        if (distance < bottomDistance) {
-                            bottomDistance = distance;
-                            bottom = edgeNode;
-                        }
-                    }
-                }
+        createEdges(EdgeGenerator.directional);
+    }
+
+    /**
+     * Generates edges for the graph with the given generator,
+     * unless the edges are up to date and were made with the same generator.
+     * Edges are kept up to date by insertNode and removeNode, but not by the other ways to change the graph.
+     *
+     * @see EdgeGenerator
+     */
+    public void createEdges(EdgeGenerator generator) {
+        assert (generator != null) : "Generator shouldn't be null";
+
+        if (hasEdges() && edgeGenerator == generator) return;
+
+        edges.clear();
+        csrGraph = null;
+        reverseNeighbours = null;
+        grid = null;
+        edgeGenerator = generator;
+        switch (generator) {
+            case directional -> createDirectionalEdges();
+            case octant -> createOctantEdges();
+        }
+        edgesModCount = modCount;
+    }
+
+    private void createDirectionalEdges() {
+        SpatialGrid grid = new SpatialGrid(this);
+        neighbours = new int[size() * 4];
+        int[] nearest = new int[4];
+        for (int i = 0; i < size(); i++) {
+            grid.findDirectionalNearest(i, nearest);
+            System.arraycopy(nearest, 0, neighbours, i * 4, 4);
+
+            for (int direction = 0; direction < nearest.length; direction++) {
+                if (nearest[direction] == -1) continue;
+
+                addEdge(i, nearest[direction]);
+            }
+        }
+    }
+
+    /**
+     * Connects each node to the closest node in each octant around it.
+     * Unlike the directional edges, these always contain a minimum spanning tree, so the graph is always connected.
+     *
+     * @see OctantSweep
+     */
+    private void createOctantEdges() {
+        neighbours = new OctantSweep(this).findNeighbours();
+        for (int i = 0; i < neighbours.length; i++) {
+            if (neighbours[i] == -1) continue;
+
+            addEdge(i / 4, neighbours[i]);
+        }
+    }
+
+
+    /**
+     * Adds the node and repairs the edges around it, if there's no node at the same location yet.
+     * Only nodes that get the new node as closest node in a direction or octant lose an edge,
+     * and the new node gets an edge to its closest nodes, so the rest of the edges stay as they are.
+     * The closest nodes of the new node are found with a DynamicGrid. The nodes that can get the new node
+     * are the far nodes of ReverseNeighbours and the nodes in a few cells around it. The far nodes are mostly at the
+     * side of the other nodes, about O(sqrt(n)) of them for spread out nodes, but up to O(n) for nodes on a line.
+     * Without up to date edges, it's the same as addIfAbsent.
+     *
+     * @return The index of the node at the location of the given node.
+     */
+    public int insertNode(GraphNode node) {
+        assert (node != null) : "Node shouldn't be null";
+
+        boolean repair = hasEdges();
+        int index = getRegistry().get(node.key);
+        if (index != -1) return index;
+
+        DistanceMatrix matrix = distanceMatrixModCount == modCount ? distanceMatrix : null;
+        if (repair) prepareRepair();
+        add(node);
+        index = size() - 1;
+        if (matrix != null) {
+            matrix.add(node.x, node.y);
+            distanceMatrixModCount = modCount;
+        }
+        if (!repair) return index;
+
+        if (neighbours.length < size() * 4) {
+            neighbours = Arrays.copyOf(neighbours, Math.max(size() * 4, neighbours.length * 2));
+        }
+        Arrays.fill(neighbours, index * 4, index * 4 + 4, -1);
+        reverseNeighbours.ensureCapacity(size());
+        reverseNeighbours.setFar(index, true);
+        grid.add(index, node);
+
+        findNeighbours(index, 0, 1, 2, 3);
+        // Nodes further away than the far distance only lose their closest node if they're far nodes.
+        int newIndex = index;
+        grid.search(node.x, node.y, other -> offerAsNeighbour(other, newIndex),
+                ring -> grid.getMinDistance(ring) >= reverseNeighbours.getFarDistance());
+        for (int other : reverseNeighbours.getFarNodes()) {
+            offerAsNeighbour(other, index);
+        }
+
+        csrGraph = null;
+        edgesModCount = modCount;
+        return index;
+    }
+
+    /**
+     * Removes the node at the given index and repairs the edges around it.
+     * The last node takes the place of the removed node, so only the index of that node changes.
+     * Nodes that had the removed node as closest node in a direction or octant look for a new closest node
+     * in a DynamicGrid, the rest of the edges stay as they are.
+     *
+     * @return The removed node.
+     */
+    public GraphNode removeNode(int index) {
+        assert (index > 0 && index < size()) : "Index should be of a node other than the home node";
+
+        boolean repair = hasEdges();
+        int last = size() - 1;
+        GraphNode removed = get(index);
+        DistanceMatrix matrix = distanceMatrixModCount == modCount ? distanceMatrix : null;
+        // The registry can only be changed when every node is in it, without nodes at the same location.
+        NodeRegistry nodeRegistry = registryModCount == modCount && registry != null && registry.size() == size()
+                ? registry : null;
+        if (!repair) {
+            set(index, get(last));
+            remove(last);
+            restoreDistanceMatrix(matrix, index);
+            restoreRegistry(nodeRegistry, removed, index);
+            return removed;
+        }
+        prepareRepair();
+
+        // Remove the edges of the removed node and empty the slots that have it.
+        int[] toRemoved = reverseNeighbours.getSlots(index);
+        for (int slot = 0; slot < 4; slot++) {
+            int neighbour = neighbours[index * 4 + slot];
+            if (neighbour == -1) continue;
+
+            edges.remove(GraphEdge.createKey(index, neighbour));
+            setNeighbour(index, slot, -1);
+        }
+        for (int i : toRemoved) {
+            edges.remove(GraphEdge.createKey(i / 4, index));
+            setNeighbour(i / 4, i % 4, -1);
+        }
+        reverseNeighbours.setFar(index, false);
+        grid.remove(index);
+
+        // Move the last node to the index of the removed node, with its edges.
+        if (index != last) {
+            for (int slot = 0; slot < 4; slot++) {
+                int neighbour = neighbours[last * 4 + slot];
+                if (neighbour != -1) edges.remove(GraphEdge.createKey(last, neighbour));
+            }
+            for (int i : reverseNeighbours.getSlots(last)) {
+                edges.remove(GraphEdge.createKey(i / 4, last));
+            }
+
+            set(index, get(last));
+            for (int slot = 0; slot < 4; slot++) {
+                int neighbour = neighbours[last * 4 + slot];
+                setNeighbour(last, slot, -1);
+                setNeighbour(index, slot, neighbour);
+            }
+            for (int i : reverseNeighbours.getSlots(last)) {
+                setNeighbour(i / 4, i % 4, index);
+            }
+            reverseNeighbours.setFar(last, false);
+            grid.move(last, index);
+        }
+        remove(last);
+        restoreDistanceMatrix(matrix, index);
+        restoreRegistry(nodeRegistry, removed, index);
+
+        if (index != last) {
+            for (int slot = 0; slot < 4; slot++) {
+                int neighbour = neighbours[index * 4 + slot];
+                if (neighbour != -1) addEdge(index, neighbour);
+            }
+            for (int i : reverseNeighbours.getSlots(index)) {
+                addEdge(i / 4, index);
+            }
+        }
+
+        // Find a new closest node for the slots that had the removed node.
+        for (int i : toRemoved) {
+            findNeighbours(i / 4 == last ? index : i / 4, i % 4);
+        }
+
+        csrGraph = null;
+        edgesModCount = modCount;
+        return removed;
+    }
+
+    /**
+     * Makes the grid and the reverse neighbours for insertNode and removeNode if they aren't there or up to date.
+     * The far distance is a few cells, so an insert only checks the cells around the new node besides the far nodes.
+     */
+    private void prepareRepair() {
+        if (grid != null && !grid.isOutdated(size())) return;
+
+        grid = new DynamicGrid(this);
+        reverseNeighbours = new ReverseNeighbours(this, neighbours, grid.getMinDistance(FAR_RINGS));
+    }
+
+    /**
+     * Puts the distance matrix back after set made it outdated, with the location at the given index removed.
+     */
+    private void restoreDistanceMatrix(DistanceMatrix matrix, int index) {
+        if (matrix == null) return;
+
+        matrix.remove(index);
+        distanceMatrix = matrix;
+        distanceMatrixModCount = modCount;
+    }
+
+    /**
+     * Puts the registry back after set made it outdated, without the removed node and with the new index of the node
+     * that took its place.
+     */
+    private void restoreRegistry(NodeRegistry nodeRegistry, GraphNode removed, int index) {
+        if (nodeRegistry == null) return;
+
+        nodeRegistry.remove(removed.key);
+        if (index < size()) nodeRegistry.put(get(index).key, index);
+        registry = nodeRegistry;
+        registryModCount = modCount;
+    }
+
+    /**
+     * The edges of the node at the given index. Only works with edges that are up to date.
+     */
+    public ArrayList<GraphEdge> getNodeEdges(int index) {
+        assert (index >= 0 && index < size()) : "Index is out of bounds";
+        assert (hasEdges()) : "Edges aren't up to date";
+
+        prepareRepair();
+        ArrayList<GraphEdge> nodeEdges = new ArrayList<>();
+        for (int slot = 0; slot < 4; slot++) {
+            int other = neighbours[index * 4 + slot];
+            if (other != -1) addNodeEdge(nodeEdges, index, other);
+        }
+        for (int i : reverseNeighbours.getSlots(index)) {
+            addNodeEdge(nodeEdges, index, i / 4);
+        }
+        return nodeEdges;
+    }
+
+    private void addNodeEdge(ArrayList<GraphEdge> nodeEdges, int index, int other) {
+        GraphEdge edge = edges.get(GraphEdge.createKey(index, other));
+        // Both nodes can have the other as closest node.
+        if (!nodeEdges.contains(edge)) nodeEdges.add(edge);
+    }
+
+    /**
+     * Whether the to node is in the given direction or octant of the from node, depending on the edge generator.
+     */
+    private boolean isInSlot(GraphNode from, GraphNode to, int slot) {
+        int deltaX = to.x - from.x;
+        int deltaY = to.y - from.y;
+        if (deltaX == 0 && deltaY == 0) return false;
+
+        return switch (edgeGenerator) {
+            case directional -> SpatialGrid.getDirection(deltaX, deltaY) == slot;
+            case octant -> OctantSweep.isInOctant(slot, deltaX, deltaY);
+        };
+    }
+
+    /**
+     * The side of the grid a slot is at, for DynamicGrid.isPastSide.
+     * Octant 0 is below the node and octant 3 above it, octants 1 and 2 are to the right.
+     */
+    private int getSide(int slot) {
+        return switch (edgeGenerator) {
+            case directional -> slot;
+            case octant -> switch (slot) {
+                case 0 -> SpatialGrid.BOTTOM;
+                case 3 -> SpatialGrid.TOP;
+                default -> SpatialGrid.RIGHT;
+            };
+        };
+    }
+
+    /**
+     * Finds the closest node in each of the given slots of the node, which should be empty, and adds their edges.
+     * Searches the grid until every slot has a node closer than the nodes that are left, or the side is reached.
+     */
+    private void findNeighbours(int node, int... slots) {
+        GraphNode from = get(node);
+        grid.search(from.x, from.y, other -> {
+            if (other == node) return;
+
+            for (int slot : slots) {
+                if (isInSlot(from, get(other), slot)) offerNeighbour(node, slot, other);
             }
+        }, ring -> {
+            for (int slot : slots) {
+                int neighbour = neighbours[node * 4 + slot];
+                if (neighbour != -1 && from.getDrivingDistance(get(neighbour)) <= grid.getMinDistance(ring)) continue;
+                if (grid.isPastSide(from.x, from.y, getSide(slot), ring)) continue;
+                return false;
+            }
+            return true;
+        });
 
-            if (left != null) addEdge(node, left, leftDistance);
-            if (right != null) addEdge(node, right, rightDistance);
-            if (top != null) addEdge(node, top, topDistance);
-            if (bottom != null) addEdge(node, bottom, bottomDistance);
+        for (int slot : slots) {
+            if (neighbours[node * 4 + slot] != -1) addEdge(node, neighbours[node * 4 + slot]);
         }
     }
 
+    /**
+     * Offers the node at the given index as closest node in the slots of the other node,
+     * and moves the edge of a slot that takes it.
+     */
+    private void offerAsNeighbour(int other, int index) {
+        if (other == index) return;
+
+        for (int slot = 0; slot < 4; slot++) {
+            if (!isInSlot(get(other), get(index), slot)) continue;
+
+            int old = neighbours[other * 4 + slot];
+            if (!offerNeighbour(other, slot, index)) continue;
+
+            addEdge(other, index);
+            if (old != -1) removeEdgeIfUnused(other, old);
+        }
+    }
+
+    /**
+     * Makes the other node the closest node in the slot of the node, if it's closer than the current one.
+     * Ties are won by the lowest node key, like the edge generators do.
+     * The key stays the same when removeNode gives the last node another index, unlike the index.
+     *
+     * @return Whether the other node was made the closest node.
+     */
+    private boolean offerNeighbour(int node, int slot, int other) {
+        int current = neighbours[node * 4 + slot];
+        if (current == other) return false;
+        if (current != -1) {
+            int distance = get(node).getDrivingDistance(get(other));
+            int currentDistance = get(node).getDrivingDistance(get(current));
+            if (distance > currentDistance) return false;
+            if (distance == currentDistance && get(other).key > get(current).key) return false;
+            // Nodes at the same location have the same key, then the lowest index wins.
+            if (distance == currentDistance && get(other).key == get(current).key && other > current) return false;
+        }
+
+        setNeighbour(node, slot, other);
+        return true;
+    }
+
+    /**
+     * Sets the closest node in the slot of the node, or -1 for none, and keeps the reverse neighbours up to date.
+     */
+    private void setNeighbour(int node, int slot, int other) {
+        int old = neighbours[node * 4 + slot];
+        neighbours[node * 4 + slot] = other;
+        if (reverseNeighbours == null) return;
+
+        if (old != -1) reverseNeighbours.remove(old, node * 4 + slot);
+        if (other != -1) reverseNeighbours.add(other, node * 4 + slot);
+        boolean far = false;
+        for (int i = node * 4; i < node * 4 + 4; i++) {
+            int neighbour = neighbours[i];
+            far |= neighbour == -1 || get(node).getDrivingDistance(get(neighbour)) > reverseNeighbours.getFarDistance();
+        }
+        reverseNeighbours.setFar(node, far);
+    }
+
+    /**
+     * Removes the edge between the nodes if neither has the other as closest node anymore.
+     */
+    private void removeEdgeIfUnused(int index1, int index2) {
+        for (int slot = 0; slot < 4; slot++) {
+            if (neighbours[index1 * 4 + slot] == index2 || neighbours[index2 * 4 + slot] == index1) return;
+        }
+        edges.remove(GraphEdge.createKey(index1, index2));
+    }
+
+
     /**
      * Sum of distances from each node to the next in the graph list.
      * Includes going back to the home node at the end.
+     * Uses the distance matrix if it's already made, since making it just for this sum would cost O(n^2).
      */
     public int calcTotalDistance() {
-        int distance = 0;
+        assert (!isEmpty()) : "Graph doesn't have home node";
+
+        DistanceMatrix matrix = distanceMatrixModCount == modCount ? distanceMatrix : null;
+        if (matrix == null) {
+            int distance = HOMENODE.getDrivingDistance(get(0));
+            for (int i = 1; i < size(); i++) {
+                distance += get(i - 1).getDrivingDistance(get(i));
+            }
+            return distance + HOMENODE.getDrivingDistance(get(size() - 1));
+        }
 
-        assert (this.get(0) != null) : "Graph doesn't have home node";
-        distance += HOMENODE.getDrivingDistance(this.get(0));
-        for (int i = 1; i < this.size(); i++) {
-            distance += this.get(i - 1).getDrivingDistance(this.get(i));
+        int[] tour = new int[size()];
+        for (int i = 0; i < tour.length; i++) {
+            tour[i] = i;
         }
-        distance += HOMENODE.getDrivingDistance(this.get(this.size() - 1));
+        int distance = matrix.calcTourDistance(tour);
+        if (get(0).equals(HOMENODE)) return distance;
 
-        return distance;
+        // Without the home node at index 0, the drive from the last node back to the first is replaced by
+        // driving from the home node to the first node and from the last node back home.
+        return distance - matrix.get(size() - 1, 0) +
+                HOMENODE.getDrivingDistance(get(0)) + HOMENODE.getDrivingDistance(get(size() - 1));
     }
 
 
@@ -0,0 +1,121 @@
+package models.graph;
+
+import models.Location;
+
+import java.util.Arrays;
+import java.util.Iterator;
+
+/**
+ * Collects the unique locations of a graph in coordinate arrays, starting with the home node.
+ * Locations are de-duplicated with a NodeRegistry on their packed key, so adding one is O(1).
+ * The coordinate arrays can be used for a DistanceMatrix directly, without making a GraphNode for every location.
+ *
+ * @see Graph#HOMENODE
+ */
+public class GraphBuilder {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * The index of each location by its key. Given to the graph by build, then made again if more are added.
+     */
+    private NodeRegistry registry = new NodeRegistry();
+    private int[] xs = new int[INITIAL_CAPACITY];
+    private int[] ys = new int[INITIAL_CAPACITY];
+    private int size = 0;
+
+
+    public GraphBuilder() {
+        add(Graph.HOMENODE);
+    }
+
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Adds the location if it wasn't added yet.
+     *
+     * @return The index of the location in the graph.
+     */
+    public int add(Location location) {
+        assert (location != null) : "Location shouldn't be null";
+
+        return add(location.x, location.y);
+    }
+
+    /**
+     * Adds the location with the given coordinates if it wasn't added yet.
+     *
+     * @return The index of the location in the graph.
+     */
+    public int add(int x, int y) {
+        int index = getRegistry().putIfAbsent(GraphNode.createKey(x, y), size);
+        if (index != -1) return index;
+
+        if (size == xs.length) {
+            xs = Arrays.copyOf(xs, size * 2);
+            ys = Arrays.copyOf(ys, size * 2);
+        }
+        xs[size] = x;
+        ys[size] = y;
+        return size++;
+    }
+
+    private NodeRegistry getRegistry() {
+        if (registry == null) {
+            registry = new NodeRegistry();
+            for (int i = 0; i < size; i++) {
+                registry.putIfAbsent(GraphNode.createKey(xs[i], ys[i]), i);
+            }
+        }
+        return registry;
+    }
+
+    /**
+     * Adds every location the iterator gives that wasn't added yet.
+     */
+    public GraphBuilder addAll(Iterator<? extends Location> locations) {
+        assert (locations != null) : "Locations shouldn't be null";
+
+        while (locations.hasNext()) {
+            add(locations.next());
+        }
+        return this;
+    }
+
+    /**
+     * The x of each location, by index.
+     */
+    public int[] getXs() {
+        return Arrays.copyOf(xs, size);
+    }
+
+    /**
+     * The y of each location, by index.
+     */
+    public int[] getYs() {
+        return Arrays.copyOf(ys, size);
+    }
+
+    /**
+     * The distances between the locations, made from the coordinate arrays.
+     */
+    public DistanceMatrix buildDistanceMatrix() {
+        return new DistanceMatrix(getXs(), getYs());
+    }
+
+    /**
+     * Makes a graph with a node for each location, in the order they were added.
+     * The graph takes the registry and the coordinate arrays, so it doesn't look up every node again
+     * and makes its first distance matrix from the arrays.
+     */
+    public Graph build() {
+        Graph graph = new Graph(getXs(), getYs(), getRegistry());
+        // The graph keeps the registry, so adding to it here would change the graph.
+        registry = null;
+        return graph;
+    }
+
+}
@@ -6,32 +6,49 @@ package models.graph;
 public class GraphEdge {
 
     /**
-     * Node ids merged as strings for identification.
+     * The graph indexes of both nodes packed in a long for identification.
+     *
+     * @see #createKey
      */
-    public final String id;
+    public final long key;
     public final GraphNode node1;
     public final GraphNode node2;
+    /**
+     * Index of node1 in the graph. Always lower than index2.
+     */
+    public final int index1;
+    public final int index2;
     public final int distance;
 
 
-    public GraphEdge(GraphNode node1, GraphNode node2, int distance) {
+    /**
+     * @param index1 Index of node1 in the graph.
+     * @param index2 Index of node2 in the graph.
+     */
+    public GraphEdge(GraphNode node1, int index1, GraphNode node2, int index2, int distance) {
         assert (node1 != null) : "Node1 shouldn't be null";
         assert (node2 != null) : "Node2 shouldn't be null";
+        assert (index1 >= 0 && index2 >= 0) : "Indexes shouldn't be negative";
+        assert (index1 != index2) : "An edge can't go from a node to itself";
         assert (distance >= 1) : "Distance shouldn't be less than 1";
 
         this.distance = distance;
 
-        // The id should be the same regardless of the order the nodes were given.
-        // This is done by always making node1 the node with the smallest id.
-        if (node1.id < node2.id) {
+        // The key should be the same regardless of the order the nodes were given.
+        // This is done by always making node1 the node with the smallest index.
+        if (index1 < index2) {
             this.node1 = node1;
             this.node2 = node2;
+            this.index1 = index1;
+            this.index2 = index2;
         } else {
             this.node1 = node2;
             this.node2 = node1;
+            this.index1 = index2;
+            this.index2 = index1;
         }
 
-        id = createId(node1, node2);
+        key = createKey(index1, index2);
     }
 
 
@@ -45,18 +62,16 @@ public class GraphEdge {
 
 
     /**
-     * Creates a unique id by merging the node ids as strings.
+     * Creates a unique key by packing the smallest node index in the high 32 bits and the other in the low 32 bits.
      */
-    public static String createId(GraphNode node1, GraphNode node2) {
-        assert (node1 != null) : "Node1 shouldn't be null";
-        assert (node2 != null) : "Node2 shouldn't be null";
+    public static long createKey(int index1, int index2) {
+        assert (index1 >= 0 && index2 >= 0) : "Indexes shouldn't be negative";
 
-        // The id should be the same regardless of the order the nodes were given.
-        // This is done by always making the first node the node with the smallest id.
-        if (node1.id < node2.id) {
-            return node1.id + ":" + node2.id;
+        // The key should be the same regardless of the order the nodes were given.
+        if (index1 < index2) {
+            return (long) index1 << 32 | index2;
         } else {
-            return node2.id + ":" + node1.id;
+            return (long) index2 << 32 | index1;
         }
     }
 
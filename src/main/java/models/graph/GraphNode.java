@@ -2,8 +2,6 @@ package models.graph;
 
 import models.Location;
 
-import java.util.Objects;
-
 /**
  * Represents a node in a Graph.
  * Extends Location for easy access to location data and functions.
@@ -11,14 +9,16 @@ import java.util.Objects;
 public class GraphNode extends Location {
 
     /**
-     * X and y merged as strings for identification.
+     * X and y packed in a long for identification. Unique for each location.
+     *
+     * @see #createKey
      */
-    public final int id;
+    public final long key;
 
 
     public GraphNode(int x, int y) {
         super(x, y);
-        id = Integer.parseInt(x + "" + y);
+        key = createKey(x, y);
     }
 
     public GraphNode(Location location) {
@@ -26,23 +26,31 @@ public class GraphNode extends Location {
     }
 
 
+    /**
+     * Packs x in the high 32 bits and y in the low 32 bits.
+     */
+    public static long createKey(int x, int y) {
+        return (long) x << 32 | (y & 0xFFFFFFFFL);
+    }
+
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         GraphNode node = (GraphNode) o;
-        return id == node.id;
+        return key == node.key;
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(id);
+        return Long.hashCode(key);
     }
 
     @Override
     public String toString() {
         return "Node{" +
-                "id=" + id +
+                "key=" + key +
                 "location=" + super.toString() +
                 '}';
     }
@@ -0,0 +1,146 @@
+package models.graph;
+
+import java.util.Arrays;
+
+/**
+ * Hash table from node keys (packed coordinates) to their index in a graph, with open addressing.
+ * Each location is registered once, so it's also used to find out if a location is in the graph already.
+ *
+ * @see GraphNode#createKey
+ */
+public class NodeRegistry {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * The node key in the same slot of indexes.
+     */
+    private long[] keys;
+    /**
+     * The node indexes plus 1, so a 0 slot is empty.
+     */
+    private int[] indexes;
+    private int size = 0;
+
+
+    public NodeRegistry() {
+        keys = new long[INITIAL_CAPACITY];
+        indexes = new int[INITIAL_CAPACITY];
+    }
+
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return The index registered for the key. -1 if the key isn't registered.
+     */
+    public int get(long key) {
+        return indexes[findSlot(key)] - 1;
+    }
+
+    /**
+     * Registers the index for the key if the key isn't registered yet.
+     *
+     * @return The index that was registered already. -1 if the given index was registered.
+     */
+    public int putIfAbsent(long key, int index) {
+        assert (index >= 0) : "Index shouldn't be negative";
+
+        int slot = findSlot(key);
+        if (indexes[slot] != 0) return indexes[slot] - 1;
+
+        keys[slot] = key;
+        indexes[slot] = index + 1;
+        size++;
+        // Keep at least half the slots empty so the probe sequences stay short.
+        if (size * 2 > indexes.length) resize(indexes.length * 2);
+        return -1;
+    }
+
+    /**
+     * Registers the index for the key, replacing the index the key had.
+     */
+    public void put(long key, int index) {
+        assert (index >= 0) : "Index shouldn't be negative";
+
+        int slot = findSlot(key);
+        if (indexes[slot] == 0) {
+            putIfAbsent(key, index);
+            return;
+        }
+        indexes[slot] = index + 1;
+    }
+
+    /**
+     * Removes the key. The keys after it in the probe sequence are moved back,
+     * so no lookup passes an empty slot before its key.
+     *
+     * @return The index that was registered for the key. -1 if the key wasn't registered.
+     */
+    public int remove(long key) {
+        int slot = findSlot(key);
+        int removed = indexes[slot] - 1;
+        if (removed == -1) return -1;
+
+        int mask = indexes.length - 1;
+        int empty = slot;
+        indexes[empty] = 0;
+        for (int next = (empty + 1) & mask; indexes[next] != 0; next = (next + 1) & mask) {
+            // A key can move to the empty slot if that slot is between its hash slot and its current slot.
+            int home = hash(keys[next]) & mask;
+            if (((next - home) & mask) >= ((next - empty) & mask)) {
+                keys[empty] = keys[next];
+                indexes[empty] = indexes[next];
+                indexes[next] = 0;
+                empty = next;
+            }
+        }
+        size--;
+        return removed;
+    }
+
+    public void clear() {
+        Arrays.fill(indexes, 0);
+        size = 0;
+    }
+
+
+    /**
+     * The slot with the given key, or the empty slot where it should be added.
+     * Uses linear probing: if the slot of the hash is taken by another key, the next slot is tried.
+     */
+    private int findSlot(long key) {
+        int mask = indexes.length - 1;
+        int slot = hash(key) & mask;
+        while (indexes[slot] != 0 && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * Spreads the bits of the key, since the keys of close nodes only differ in a few low bits.
+     */
+    private static int hash(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32));
+    }
+
+    private void resize(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldIndexes = indexes;
+        keys = new long[capacity];
+        indexes = new int[capacity];
+
+        for (int i = 0; i < oldIndexes.length; i++) {
+            if (oldIndexes[i] == 0) continue;
+
+            int slot = findSlot(oldKeys[i]);
+            keys[slot] = oldKeys[i];
+            indexes[slot] = oldIndexes[i];
+        }
+    }
+
+}
@@ -0,0 +1,188 @@
+package models.graph;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Finds the closest node (by driving distance) in each octant around every node with a sweep line in O(n log n).
+ * The octants are the 8 slices you get when cutting the plane around a node horizontally, vertically and diagonally.
+ * Any two nodes in the same octant of a node are closer to each other than the furthest is to that node,
+ * so a minimum spanning tree only needs the edge to the closest node of each octant.
+ * That makes the at most 4n edges found here enough for Kruskal to find the same tree as with all n^2 edges.
+ *
+ * @see Graph#createEdges(enums.EdgeGenerator)
+ */
+class OctantSweep {
+
+    private final int size;
+    private final int[] xs;
+    private final int[] ys;
+    /**
+     * The key of each node, which breaks ties between nodes at the same distance.
+     *
+     * @see GraphNode#key
+     */
+    private final long[] nodeKeys;
+
+
+    OctantSweep(List<GraphNode> nodes) {
+        assert (nodes != null) : "Nodes shouldn't be null";
+
+        size = nodes.size();
+        xs = new int[size];
+        ys = new int[size];
+        nodeKeys = new long[size];
+        for (int i = 0; i < size; i++) {
+            GraphNode node = nodes.get(i);
+            xs[i] = node.x;
+            ys[i] = node.y;
+            nodeKeys[i] = node.key;
+        }
+    }
+
+
+    /**
+     * Finds the closest node in 4 neighbouring octants of every node.
+     * Ties are won by the node with the lowest key, which doesn't change when nodes get another index,
+     * so Graph.insertNode and Graph.removeNode can find the same nodes.
+     * The other 4 octants are covered too, since a node is in one of those octants of a node exactly
+     * when that node is in one of the 4 octants of it.
+     *
+     * @return For each node i, the closest node index of octant k at i * 4 + k, or -1 if the octant is empty.
+     */
+    int[] findNeighbours() {
+        int[] neighbours = new int[size * 4];
+        Arrays.fill(neighbours, -1);
+
+        // The sweep only finds the octant up and to the right of the diagonal.
+        // The coordinates are mirrored between sweeps to turn each of the other octants into that one.
+        int[] x = xs.clone();
+        int[] y = ys.clone();
+        for (int octant = 0; octant < 4; octant++) {
+            if (octant == 1 || octant == 3) {
+                int[] temp = x;
+                x = y;
+                y = temp;
+            } else if (octant == 2) {
+                for (int i = 0; i < size; i++) {
+                    x[i] = -x[i];
+                }
+            }
+            sweep(x, y, neighbours, octant);
+        }
+
+        return neighbours;
+    }
+
+    /**
+     * Whether a node at the given distance from another node is in the given octant of that node,
+     * as findNeighbours numbers them. The octants are closed, so nodes on a border are in both octants.
+     */
+    static boolean isInOctant(int octant, int deltaX, int deltaY) {
+        return switch (octant) {
+            case 0 -> deltaX >= 0 && deltaY >= deltaX;
+            case 1 -> deltaY >= 0 && deltaX >= deltaY;
+            case 2 -> deltaY <= 0 && deltaX >= -deltaY;
+            default -> deltaX >= 0 && -deltaY >= deltaX;
+        };
+    }
+
+    /**
+     * For each node i, finds the node j with xj >= xi and yj - xj >= yi - xi that has the lowest xj + yj,
+     * which is the closest node in that octant. Of the nodes with the same x + y, the one with the lowest key wins.
+     * Nodes are added from right to left to a Fenwick tree indexed by y - x that keeps the lowest x + y,
+     * so the lowest x + y of the nodes right of i with a high enough y - x is a single query.
+     */
+    private void sweep(int[] x, int[] y, int[] neighbours, int octant) {
+        int[] order = sortByXThenY(x, y);
+
+        // Compress y - x to Fenwick tree positions.
+        long[] keys = new long[size];
+        for (int i = 0; i < size; i++) {
+            keys[i] = (long) y[i] - x[i];
+        }
+        long[] uniqueKeys = unique(keys);
+
+        // Fenwick tree over reversed positions, so a prefix query gives the nodes with a key at least as high.
+        long[] bestSums = new long[uniqueKeys.length + 1];
+        int[] bestNodes = new int[uniqueKeys.length + 1];
+        Arrays.fill(bestSums, Long.MAX_VALUE);
+        Arrays.fill(bestNodes, -1);
+
+        for (int k = size - 1; k >= 0; k--) {
+            int i = order[k];
+            int position = uniqueKeys.length - Arrays.binarySearch(uniqueKeys, keys[i]);
+            long sum = (long) x[i] + y[i];
+
+            int best = -1;
+            long bestSum = Long.MAX_VALUE;
+            for (int p = position; p > 0; p -= p & -p) {
+                if (isBetter(bestSums[p], bestNodes[p], bestSum, best)) {
+                    bestSum = bestSums[p];
+                    best = bestNodes[p];
+                }
+            }
+            // Nodes with the same coordinates are the same location.
+            if (best != -1 && (xs[best] != xs[i] || ys[best] != ys[i])) neighbours[i * 4 + octant] = best;
+
+            for (int p = position; p < bestSums.length; p += p & -p) {
+                if (isBetter(sum, i, bestSums[p], bestNodes[p])) {
+                    bestSums[p] = sum;
+                    bestNodes[p] = i;
+                }
+            }
+        }
+    }
+
+    /**
+     * Whether the node with the given x + y is closer than the current best, or as close with a lower key.
+     */
+    private boolean isBetter(long sum, int node, long bestSum, int best) {
+        if (node == -1) return false;
+        if (best == -1) return true;
+        return sum < bestSum || (sum == bestSum && nodeKeys[node] < nodeKeys[best]);
+    }
+
+
+    /**
+     * Node indexes sorted by x, then by y.
+     * Sorted twice as packed longs, which is a lot faster than sorting objects with a comparator:
+     * first by y with the index in the low bits, then by x with the position in the y order in the low bits.
+     */
+    private int[] sortByXThenY(int[] x, int[] y) {
+        long[] packed = new long[size];
+        for (int i = 0; i < size; i++) {
+            packed[i] = (long) y[i] << 32 | i;
+        }
+        Arrays.sort(packed);
+        int[] byY = new int[size];
+        for (int i = 0; i < size; i++) {
+            byY[i] = (int) packed[i];
+        }
+
+        for (int i = 0; i < size; i++) {
+            packed[i] = (long) x[byY[i]] << 32 | i;
+        }
+        Arrays.sort(packed);
+        int[] order = new int[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = byY[(int) packed[i]];
+        }
+        return order;
+    }
+
+    /**
+     * The values sorted from low to high, without duplicates.
+     */
+    private static long[] unique(long[] values) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+
+        int count = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (i == 0 || sorted[i] != sorted[count - 1]) sorted[count++] = sorted[i];
+        }
+        return Arrays.copyOf(sorted, count);
+    }
+
+}
@@ -0,0 +1,124 @@
+package models.graph;
+
+import java.util.Arrays;
+
+/**
+ * The closest node slots of a graph the other way around: for each node, the slots that have it as closest node.
+ * A slot is node * 4 + direction or octant, like in Graph.neighbours.
+ * Also keeps the far nodes: the nodes with an empty slot or with a closest node further away than farDistance.
+ * Only those can get an inserted node further away than farDistance as closest node, so an insert only has to check
+ * the far nodes and the nodes within farDistance. Nodes at the side of the others are usually the far nodes.
+ * Made on the first insertNode or removeNode after the edges were made, then kept up to date by Graph.
+ *
+ * @see Graph#insertNode
+ * @see Graph#removeNode
+ */
+class ReverseNeighbours {
+
+    /**
+     * The slots that have node i as closest node are slots[i][0] to slots[i][counts[i] - 1].
+     */
+    private int[][] slots;
+    private int[] counts;
+    private final long farDistance;
+    /**
+     * The far nodes, in any order.
+     */
+    private int[] farNodes;
+    private int farCount;
+    /**
+     * The position of each node in farNodes plus 1, or 0 if it isn't a far node.
+     */
+    private int[] farPositions;
+
+
+    ReverseNeighbours(Graph graph, int[] neighbours, long farDistance) {
+        assert (graph != null) : "Graph shouldn't be null";
+        assert (neighbours != null && neighbours.length >= graph.size() * 4) : "Neighbours should have every slot";
+
+        this.farDistance = farDistance;
+        int size = graph.size();
+        slots = new int[size][];
+        counts = new int[size];
+        farNodes = new int[Math.max(size, 4)];
+        farPositions = new int[size];
+        for (int i = 0; i < size * 4; i++) {
+            int neighbour = neighbours[i];
+            if (neighbour == -1 || graph.get(i / 4).getDrivingDistance(graph.get(neighbour)) > farDistance) {
+                setFar(i / 4, true);
+            }
+            if (neighbour != -1) add(neighbour, i);
+        }
+    }
+
+
+    void ensureCapacity(int size) {
+        if (size <= counts.length) return;
+
+        int capacity = Math.max(size, counts.length * 2);
+        slots = Arrays.copyOf(slots, capacity);
+        counts = Arrays.copyOf(counts, capacity);
+        farPositions = Arrays.copyOf(farPositions, capacity);
+    }
+
+    /**
+     * Saves that the slot has the node as closest node.
+     */
+    void add(int node, int slot) {
+        if (slots[node] == null) {
+            slots[node] = new int[4];
+        } else if (counts[node] == slots[node].length) {
+            slots[node] = Arrays.copyOf(slots[node], counts[node] * 2);
+        }
+        slots[node][counts[node]++] = slot;
+    }
+
+    /**
+     * Saves that the slot doesn't have the node as closest node anymore.
+     */
+    void remove(int node, int slot) {
+        for (int i = 0; i < counts[node]; i++) {
+            if (slots[node][i] != slot) continue;
+
+            slots[node][i] = slots[node][--counts[node]];
+            return;
+        }
+        assert false : "Slot didn't have the node as closest node";
+    }
+
+    /**
+     * The slots that have the node as closest node.
+     */
+    int[] getSlots(int node) {
+        if (counts[node] == 0) return new int[0];
+        return Arrays.copyOf(slots[node], counts[node]);
+    }
+
+    long getFarDistance() {
+        return farDistance;
+    }
+
+    /**
+     * Saves whether the node is a far node.
+     */
+    void setFar(int node, boolean far) {
+        if (far == (farPositions[node] != 0)) return;
+
+        if (far) {
+            if (farCount == farNodes.length) farNodes = Arrays.copyOf(farNodes, farCount * 2);
+            farNodes[farCount++] = node;
+            farPositions[node] = farCount;
+            return;
+        }
+
+        int moved = farNodes[--farCount];
+        farNodes[farPositions[node] - 1] = moved;
+        farPositions[moved] = farPositions[node];
+        farPositions[node] = 0;
+    }
+
+    int[] getFarNodes() {
+        return Arrays.copyOf(farNodes, farCount);
+    }
+
+}
@@ -0,0 +1,309 @@
+package models.graph;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Uniform grid over the node coordinates to find close nodes without checking every node.
+ * Each cell has about 2 nodes, so searching the cells around a node in growing rings finds its closest nodes
+ * after a few rings, which makes a query close to O(1) for spread out nodes.
+ * Directions without any nodes are known beforehand, so nodes on a line or at the side of the other nodes
+ * don't search the whole grid for them.
+ * A query still searches all cells up to its closest node in each direction. When that node is far away compared
+ * to the cell size, like for a node next to a big empty area with the other nodes in a tight cluster,
+ * a query can check up to all O(n) cells.
+ *
+ * @see Graph#createEdges
+ */
+class SpatialGrid {
+
+    static final int LEFT = 0;
+    static final int RIGHT = 1;
+    static final int TOP = 2;
+    static final int BOTTOM = 3;
+
+    /**
+     * Average amount of nodes per cell the cell size is based on.
+     */
+    private static final int NODES_PER_CELL = 2;
+
+    private final List<GraphNode> nodes;
+    private final int minX;
+    private final int minY;
+    private final int cellSize;
+    private final int cellsX;
+    private final int cellsY;
+    /**
+     * Node indexes sorted by cell. The nodes of cell i are at cellStarts[i] to cellStarts[i + 1] in cellNodes.
+     * Cell (x, y) is cell y * cellsX + x.
+     */
+    private final int[] cellStarts;
+    private final int[] cellNodes;
+    /**
+     * The coordinates of each node in cellNodes, in the same order.
+     * Searching a cell then reads the arrays in order instead of nodes that are all over the memory.
+     */
+    private final int[] cellNodeXs;
+    private final int[] cellNodeYs;
+    /**
+     * For each node, a bit per direction (1 << LEFT etc.) that's set when there are other nodes in that direction.
+     * Null when the coordinates are too far apart to check that, then every direction is searched.
+     */
+    private final byte[] directions;
+
+
+    SpatialGrid(List<GraphNode> nodes) {
+        assert (nodes != null) : "Nodes shouldn't be null";
+
+        this.nodes = nodes;
+        int size = nodes.size();
+
+        int minX = Integer.MAX_VALUE;
+        int minY = Integer.MAX_VALUE;
+        int maxX = Integer.MIN_VALUE;
+        int maxY = Integer.MIN_VALUE;
+        for (GraphNode node : nodes) {
+            minX = Math.min(minX, node.x);
+            minY = Math.min(minY, node.y);
+            maxX = Math.max(maxX, node.x);
+            maxY = Math.max(maxY, node.y);
+        }
+        if (size == 0) {
+            minX = minY = maxX = maxY = 0;
+        }
+        this.minX = minX;
+        this.minY = minY;
+
+        long width = (long) maxX - minX + 1;
+        long height = (long) maxY - minY + 1;
+        int cellSize = (int) Math.max(1, Math.sqrt((double) width * height * NODES_PER_CELL / Math.max(size, 1)));
+        // Nodes on a line would give a lot of empty cells, so the amount of cells is limited.
+        while ((width / cellSize + 1) * (height / cellSize + 1) > 4L * size + 16) {
+            cellSize *= 2;
+        }
+        this.cellSize = cellSize;
+        cellsX = (int) (width / cellSize + 1);
+        cellsY = (int) (height / cellSize + 1);
+
+        // Counting sort of the node indexes by cell.
+        cellStarts = new int[cellsX * cellsY + 1];
+        for (GraphNode node : nodes) {
+            cellStarts[getCell(node) + 1]++;
+        }
+        for (int i = 0; i < cellsX * cellsY; i++) {
+            cellStarts[i + 1] += cellStarts[i];
+        }
+        cellNodes = new int[size];
+        cellNodeXs = new int[size];
+        cellNodeYs = new int[size];
+        int[] filled = new int[cellsX * cellsY];
+        System.arraycopy(cellStarts, 0, filled, 0, filled.length);
+        for (int i = 0; i < size; i++) {
+            GraphNode node = nodes.get(i);
+            int position = filled[getCell(node)]++;
+            cellNodes[position] = i;
+            cellNodeXs[position] = node.x;
+            cellNodeYs[position] = node.y;
+        }
+
+        directions = width + height <= Integer.MAX_VALUE ? findDirections() : null;
+    }
+
+    /**
+     * Finds in which directions each node has other nodes.
+     * Turned 45 degrees, with u = x + y and v = x - y, the directions are quadrants around the node:
+     * left is u and v lower, right is u and v higher, top is u lower or equal and v higher or equal,
+     * bottom is u higher or equal and v lower or equal (both without the node itself).
+     * Sweeping the nodes by u while keeping the lowest and highest v so far finds whether each quadrant has a node.
+     */
+    private byte[] findDirections() {
+        int size = nodes.size();
+        int[] us = new int[size];
+        int[] vs = new int[size];
+        // Sort the node indexes by u, packed as u << 32 | index. u is at least 0 since it's taken from the minimum.
+        long[] sorted = new long[size];
+        for (int i = 0; i < size; i++) {
+            GraphNode node = nodes.get(i);
+            us[i] = (node.x - minX) + (node.y - minY);
+            vs[i] = (node.x - minX) - (node.y - minY);
+            sorted[i] = (long) us[i] << 32 | i;
+        }
+        Arrays.sort(sorted);
+
+        byte[] directions = new byte[size];
+        // Ascending u: left and top only look at lower u, apart from top at the same u.
+        int minV = Integer.MAX_VALUE;
+        int maxV = Integer.MIN_VALUE;
+        for (int start = 0; start < size; ) {
+            int end = findGroupEnd(sorted, us, start);
+            int groupMaxV = Integer.MIN_VALUE;
+            for (int i = start; i < end; i++) {
+                groupMaxV = Math.max(groupMaxV, vs[(int) sorted[i]]);
+            }
+            for (int i = start; i < end; i++) {
+                int index = (int) sorted[i];
+                if (minV < vs[index]) directions[index] |= 1 << LEFT;
+                if (maxV >= vs[index] || groupMaxV > vs[index]) directions[index] |= 1 << TOP;
+            }
+            for (int i = start; i < end; i++) {
+                minV = Math.min(minV, vs[(int) sorted[i]]);
+                maxV = Math.max(maxV, vs[(int) sorted[i]]);
+            }
+            start = end;
+        }
+
+        // Descending u: right and bottom only look at higher u, apart from bottom at the same u.
+        minV = Integer.MAX_VALUE;
+        maxV = Integer.MIN_VALUE;
+        for (int end = size; end > 0; ) {
+            int start = findGroupStart(sorted, us, end);
+            int groupMinV = Integer.MAX_VALUE;
+            for (int i = start; i < end; i++) {
+                groupMinV = Math.min(groupMinV, vs[(int) sorted[i]]);
+            }
+            for (int i = start; i < end; i++) {
+                int index = (int) sorted[i];
+                if (maxV > vs[index]) directions[index] |= 1 << RIGHT;
+                if (minV <= vs[index] || groupMinV < vs[index]) directions[index] |= 1 << BOTTOM;
+            }
+            for (int i = start; i < end; i++) {
+                minV = Math.min(minV, vs[(int) sorted[i]]);
+                maxV = Math.max(maxV, vs[(int) sorted[i]]);
+            }
+            end = start;
+        }
+        return directions;
+    }
+
+    /**
+     * The end (exclusive) of the nodes in sorted with the same u as the node at start.
+     */
+    private static int findGroupEnd(long[] sorted, int[] us, int start) {
+        int end = start + 1;
+        while (end < sorted.length && us[(int) sorted[end]] == us[(int) sorted[start]]) end++;
+        return end;
+    }
+
+    /**
+     * The start of the nodes in sorted with the same u as the node before end.
+     */
+    private static int findGroupStart(long[] sorted, int[] us, int end) {
+        int start = end - 1;
+        while (start > 0 && us[(int) sorted[start - 1]] == us[(int) sorted[end - 1]]) start--;
+        return start;
+    }
+
+    private int getCell(GraphNode node) {
+        return getCellY(node) * cellsX + getCellX(node);
+    }
+
+    private int getCellX(GraphNode node) {
+        return (node.x - minX) / cellSize;
+    }
+
+    private int getCellY(GraphNode node) {
+        return (node.y - minY) / cellSize;
+    }
+
+
+    /**
+     * Finds the closest node left, right, top and bottom from the node at the given index, like Graph.createEdges.
+     * A node is left or right when it's further away horizontally than vertically, otherwise it's top or bottom.
+     * Ties are won by the node with the lowest key, so it gives the same nodes as Graph.insertNode and removeNode,
+     * which give nodes another index.
+     *
+     * @param result Gets the node index for each direction (LEFT, RIGHT, TOP and BOTTOM) or -1 if there's none.
+     */
+    void findDirectionalNearest(int index, int[] result) {
+        assert (result != null && result.length == 4) : "Result should have a place for each direction";
+
+        GraphNode node = nodes.get(index);
+        int[] bestDistances = new int[4];
+        for (int direction = 0; direction < 4; direction++) {
+            result[direction] = -1;
+            // A direction without nodes is done before it starts, since nothing can beat a distance of 0.
+            boolean empty = directions != null && (directions[index] & (1 << direction)) == 0;
+            bestDistances[direction] = empty ? 0 : Integer.MAX_VALUE;
+        }
+
+        int cellX = getCellX(node);
+        int cellY = getCellY(node);
+        int maxRing = Math.max(cellsX, cellsY);
+        for (int ring = 0; ring <= maxRing; ring++) {
+            // Walk the cells at exactly ring cells from the node cell.
+            for (int y = cellY - ring; y <= cellY + ring; y++) {
+                if (y < 0 || y >= cellsY) continue;
+
+                boolean edgeRow = y == cellY - ring || y == cellY + ring;
+                int step = edgeRow ? 1 : 2 * ring;
+                for (int x = cellX - ring; x <= cellX + ring; x += step) {
+                    if (x < 0 || x >= cellsX) continue;
+
+                    int cell = y * cellsX + x;
+                    for (int i = cellStarts[cell]; i < cellStarts[cell + 1]; i++) {
+                        check(node, i, result, bestDistances);
+                    }
+                }
+            }
+
+            // Nodes outside the searched rings are more than ring * cellSize away.
+            // A direction is also done when the rings are past the side of the grid in that direction,
+            // since the nodes in it are at least as far away in that direction as in the other.
+            boolean done = true;
+            for (int direction = 0; direction < 4; direction++) {
+                if (bestDistances[direction] <= (long) ring * cellSize) continue;
+                if (isPastSide(direction, cellX, cellY, ring)) continue;
+                done = false;
+            }
+            if (done) return;
+        }
+    }
+
+    /**
+     * The direction of a node at the given distance from another node.
+     * It's left or right when it's further away horizontally than vertically, otherwise it's top or bottom.
+     */
+    static int getDirection(int deltaX, int deltaY) {
+        if (Math.abs(deltaX) > Math.abs(deltaY)) return deltaX < 0 ? LEFT : RIGHT;
+        return deltaY < 0 ? TOP : BOTTOM;
+    }
+
+    private boolean isPastSide(int direction, int cellX, int cellY, int ring) {
+        return switch (direction) {
+            case LEFT -> cellX - ring < 0;
+            case RIGHT -> cellX + ring > cellsX - 1;
+            case TOP -> cellY - ring < 0;
+            default -> cellY + ring > cellsY - 1;
+        };
+    }
+
+    /**
+     * Whether the node at the given position in cellNodes has a lower key than the current closest node.
+     * Nodes at the same location have the same key, then the lowest index wins.
+     */
+    private boolean isLowerKey(int otherIndex, int position, int current) {
+        long key = GraphNode.createKey(cellNodeXs[position], cellNodeYs[position]);
+        long currentKey = nodes.get(current).key;
+        return key < currentKey || (key == currentKey && otherIndex < current);
+    }
+
+    /**
+     * Saves the node at the given position in cellNodes as closest node in its direction if it's closer.
+     */
+    private void check(GraphNode node, int position, int[] result, int[] bestDistances) {
+        int deltaX = cellNodeXs[position] - node.x;
+        int deltaY = cellNodeYs[position] - node.y;
+        // Ignore self and other nodes at the same location.
+        if (deltaX == 0 && deltaY == 0) return;
+        int distance = Math.abs(deltaX) + Math.abs(deltaY);
+        int direction = getDirection(deltaX, deltaY);
+
+        int otherIndex = cellNodes[position];
+        if (distance < bestDistances[direction] ||
+                (distance == bestDistances[direction] && isLowerKey(otherIndex, position, result[direction]))) {
+            bestDistances[direction] = distance;
+            result[direction] = otherIndex;
+        }
+    }
+
+}
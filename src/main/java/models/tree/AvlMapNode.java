@@ -1,12 +1,22 @@
 package models.tree;
 
+import java.util.Arrays;
+import java.util.Objects;
+
 /**
  * Represents a node in a AvlTreeMap.
+ * A node holds every value with its key, so keys that are used a lot only take one node.
  */
 public class AvlMapNode<K extends Comparable<K>, V> {
 
     public final K key;
-    public final V value;
+
+    /**
+     * The values with the key in the order they were added, at values[first] to values[first + count - 1].
+     */
+    private Object[] values;
+    private int first = 0;
+    private int count = 1;
 
     private int height;
     private AvlMapNode<K, V> left;
@@ -15,11 +25,68 @@ public class AvlMapNode<K extends Comparable<K>, V> {
 
     public AvlMapNode(K key, V value) {
         this.key = key;
-        this.value = value;
+        this.values = new Object[]{value};
         this.height = 1;
     }
 
 
+    /**
+     * @return The first added value with the key.
+     */
+    public V getValue() {
+        return getValue(0);
+    }
+
+    @SuppressWarnings("unchecked")
+    public V getValue(int index) {
+        assert (index >= 0 && index < count) : "Index is out of bounds";
+
+        return (V) values[first + index];
+    }
+
+    /**
+     * Amount of values with the key.
+     */
+    public int getCount() {
+        return count;
+    }
+
+    void addValue(V value) {
+        if (first + count == values.length) {
+            // Move the values back to the start if the removed values at the front left enough room,
+            // otherwise double the room.
+            Object[] moved = count <= values.length / 2 ? values : new Object[values.length * 2];
+            System.arraycopy(values, first, moved, 0, count);
+            Arrays.fill(moved, count, first + count, null);
+            values = moved;
+            first = 0;
+        }
+        values[first + count++] = value;
+    }
+
+    /**
+     * Removes the first value that equals the given value.
+     *
+     * @return False if the node doesn't have the value.
+     */
+    boolean removeValue(V value) {
+        for (int i = first; i < first + count; i++) {
+            if (!Objects.equals(values[i], value)) continue;
+
+            if (i == first) {
+                // Removing the first value is common, so it's done without moving the others.
+                values[first++] = null;
+            } else {
+                System.arraycopy(values, i + 1, values, i, first + count - i - 1);
+                values[first + count - 1] = null;
+            }
+            count--;
+            return true;
+        }
+        return false;
+    }
+
+
     public int getHeight() {
         return height;
     }
@@ -66,12 +133,13 @@ public class AvlMapNode<K extends Comparable<K>, V> {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         AvlMapNode node = (AvlMapNode) o;
-        return value.equals(node.value);
+        return getValue().equals(node.getValue());
     }
 
     @Override
     public String toString() {
-        return key + ":" + value;
+        if (count == 1) return key + ":" + getValue();
+        return key + ":" + getValue() + "(" + count + ")";
     }
 
 }
@@ -1,16 +1,74 @@
 package models.tree;
 
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 
 /**
  * An AVL tree with keys for sorting and values for storage.
+ * Values with the same key are kept together in the node of the key, so no value is dropped.
  */
 public class AvlTreeMap<K extends Comparable<K>, V> {
 
     private AvlMapNode<K, V> root;
+    /**
+     * Amount of values, which is the amount of nodes plus the values that share a key.
+     */
     private int size = 0;
+    /**
+     * The node found by the last recursive remove call.
+     */
+    private AvlMapNode<K, V> removed;
+
+
+    public AvlTreeMap() { }
+
+    /**
+     * Builds a balanced tree from the nodes at once, which is O(n) if the nodes are sorted by key
+     * and O(n log n) otherwise. The given nodes aren't changed or used in the tree.
+     * Values with the same key are kept in the order of the list.
+     */
+    public AvlTreeMap(List<AvlMapNode<K, V>> nodes) {
+        assert (nodes != null) : "Nodes shouldn't be null";
+
+        ArrayList<AvlMapNode<K, V>> sorted = new ArrayList<>(nodes);
+        // The sort is stable and takes a single pass when the nodes are sorted already.
+        sorted.sort(Comparator.comparing((AvlMapNode<K, V> node) -> node.key));
+
+        ArrayList<AvlMapNode<K, V>> unique = new ArrayList<>();
+        for (AvlMapNode<K, V> node : sorted) {
+            AvlMapNode<K, V> last = unique.isEmpty() ? null : unique.get(unique.size() - 1);
+            int start = 0;
+            if (last == null || last.key.compareTo(node.key) != 0) {
+                last = new AvlMapNode<>(node.key, node.getValue());
+                unique.add(last);
+                start = 1;
+            }
+            for (int i = start; i < node.getCount(); i++) {
+                last.addValue(node.getValue(i));
+            }
+            size += node.getCount();
+        }
+        root = build(unique, 0, unique.size());
+    }
+
+    /**
+     * Links the sorted nodes from start (inclusive) to end (exclusive) with the middle node as root.
+     * Both sides get the same amount of nodes give or take one, so the heights differ by at most one.
+     */
+    private AvlMapNode<K, V> build(ArrayList<AvlMapNode<K, V>> nodes, int start, int end) {
+        if (start == end) return null;
+
+        int middle = (start + end) >>> 1;
+        AvlMapNode<K, V> node = nodes.get(middle);
+        node.setLeft(build(nodes, start, middle));
+        node.setRight(build(nodes, middle + 1, end));
+        node.setHeight(Math.max(getHeight(node.getLeft()), getHeight(node.getRight())) + 1);
+        return node;
+    }
 
 
     public AvlMapNode<K, V> getRoot() {
@@ -42,6 +100,8 @@ public class AvlTreeMap<K extends Comparable<K>, V> {
         } else if (compare > 0) { //larger (right insert)
             node.setRight(insert(node.getRight(), key, value));
         } else {
+            node.addValue(value);
+            size++;
             return node;
         }
 
@@ -69,7 +129,9 @@ public class AvlTreeMap<K extends Comparable<K>, V> {
 
     public void insert(ArrayList<AvlMapNode<K, V>> nodes) {
         for (AvlMapNode<K, V> node : nodes) {
-            insert(node.key, node.value);
+            for (int i = 0; i < node.getCount(); i++) {
+                insert(node.key, node.getValue(i));
+            }
         }
     }
 
@@ -101,6 +163,97 @@ public class AvlTreeMap<K extends Comparable<K>, V> {
     }
 
 
+    /**
+     * Restores the balance of a node after one of its subtrees got one lower or higher.
+     *
+     * @return The node that took the place of the given node.
+     */
+    private AvlMapNode<K, V> rebalance(AvlMapNode<K, V> node) {
+        node.setHeight(Math.max(getHeight(node.getLeft()), getHeight(node.getRight())) + 1);
+
+        int balance = getBalance(node);
+
+        if (balance >= 2) {
+            if (getBalance(node.getLeft()) < 0) node.setLeft(leftRotate(node.getLeft()));     //LR
+            return rightRotate(node);                                                         //LL
+        }
+        if (balance <= -2) {
+            if (getBalance(node.getRight()) > 0) node.setRight(rightRotate(node.getRight())); //RL
+            return leftRotate(node);                                                          //RR
+        }
+        return node;
+    }
+
+    private AvlMapNode<K, V> remove(AvlMapNode<K, V> node, K key) {
+        if (node == null) return null;
+        int compare = key.compareTo(node.key);
+        if (compare < 0) {
+            node.setLeft(remove(node.getLeft(), key));
+        } else if (compare > 0) {
+            node.setRight(remove(node.getRight(), key));
+        } else {
+            removed = node;
+            size -= node.getCount();
+            if (node.getLeft() == null) return node.getRight();
+            if (node.getRight() == null) return node.getLeft();
+
+            // The keys are final, so the smallest node on the right takes the place of the node.
+            AvlMapNode<K, V> successor = node.getRight();
+            while (successor.getLeft() != null) successor = successor.getLeft();
+            successor.setRight(removeMin(node.getRight()));
+            successor.setLeft(node.getLeft());
+            node = successor;
+        }
+        return rebalance(node);
+    }
+
+    private AvlMapNode<K, V> removeMin(AvlMapNode<K, V> node) {
+        if (node.getLeft() == null) return node.getRight();
+        node.setLeft(removeMin(node.getLeft()));
+        return rebalance(node);
+    }
+
+    /**
+     * Removes the node with the given key and all its values in O(log n).
+     *
+     * @return The first value of the removed node or null if there's no node with the key.
+     */
+    public V remove(K key) {
+        assert (key != null) : "Key shouldn't be null";
+
+        removed = null;
+        root = remove(root, key);
+        AvlMapNode<K, V> node = removed;
+        removed = null;
+        if (node == null) return null;
+
+        node.setLeft(null);
+        node.setRight(null);
+        node.setHeight(1);
+        return node.getValue();
+    }
+
+    /**
+     * Removes one value with the given key. The node of the key is only removed when it has no values left.
+     *
+     * @return False if the value isn't in the tree with the given key.
+     */
+    public boolean remove(K key, V value) {
+        assert (key != null) : "Key shouldn't be null";
+
+        AvlMapNode<K, V> node = find(root, key);
+        if (node == null) return false;
+        if (node.getCount() == 1) {
+            if (!Objects.equals(node.getValue(), value)) return false;
+            remove(key);
+            return true;
+        }
+        if (!node.removeValue(value)) return false;
+        size--;
+        return true;
+    }
+
+
     private AvlMapNode<K, V> find(AvlMapNode<K, V> node, K key) {
         if (node == null) return null;
         int compare = key.compareTo(node.key);
@@ -110,18 +263,91 @@ public class AvlTreeMap<K extends Comparable<K>, V> {
     }
 
     public V find(K key) {
-        return find(root, key).value;
+        return find(root, key).getValue();
+    }
+
+    public boolean containsKey(K key) {
+        return find(root, key) != null;
+    }
+
+    /**
+     * @return The node with the highest key lower than or equal to the given key or null if there's none.
+     */
+    public AvlMapNode<K, V> floorEntry(K key) {
+        assert (key != null) : "Key shouldn't be null";
+
+        AvlMapNode<K, V> floor = null;
+        AvlMapNode<K, V> node = root;
+        while (node != null) {
+            int compare = key.compareTo(node.key);
+            if (compare == 0) return node;
+            if (compare < 0) {
+                node = node.getLeft();
+            } else {
+                floor = node;
+                node = node.getRight();
+            }
+        }
+        return floor;
+    }
+
+    /**
+     * @return The node with the lowest key higher than or equal to the given key or null if there's none.
+     */
+    public AvlMapNode<K, V> ceilingEntry(K key) {
+        assert (key != null) : "Key shouldn't be null";
+
+        AvlMapNode<K, V> ceiling = null;
+        AvlMapNode<K, V> node = root;
+        while (node != null) {
+            int compare = key.compareTo(node.key);
+            if (compare == 0) return node;
+            if (compare > 0) {
+                node = node.getRight();
+            } else {
+                ceiling = node;
+                node = node.getLeft();
+            }
+        }
+        return ceiling;
+    }
+
+
+    private void subMap(AvlMapNode<K, V> node, K low, K high, ArrayList<AvlMapNode<K, V>> out) {
+        if (node == null) return;
+        // Subtrees that are completely out of the range aren't visited.
+        boolean aboveLow = low.compareTo(node.key) <= 0;
+        boolean belowHigh = high.compareTo(node.key) > 0;
+        if (aboveLow) subMap(node.getLeft(), low, high, out);
+        if (aboveLow && belowHigh) out.add(node);
+        if (belowHigh) subMap(node.getRight(), low, high, out);
+    }
+
+    /**
+     * Collects the nodes with a key from low (inclusive) to high (exclusive) in O(log n + amount of nodes found).
+     *
+     * @return The nodes in the range, ordered by key.
+     */
+    public ArrayList<AvlMapNode<K, V>> subMap(K low, K high) {
+        assert (low != null) : "Low shouldn't be null";
+        assert (high != null) : "High shouldn't be null";
+
+        ArrayList<AvlMapNode<K, V>> out = new ArrayList<>();
+        subMap(root, low, high, out);
+        return out;
     }
 
 
     private void forEach(AvlMapNode<K, V> node, BiConsumer<K, V> action) {
         if (node.getLeft() != null) forEach(node.getLeft(), action);
-        action.accept(node.key, node.value);
+        for (int i = 0; i < node.getCount(); i++) {
+            action.accept(node.key, node.getValue(i));
+        }
         if (node.getRight() != null) forEach(node.getRight(), action);
     }
 
     public void forEach(BiConsumer<K, V> action) {
-        forEach(root, action);
+        if (root != null) forEach(root, action);
     }
 
     private void forEachNode(AvlMapNode<K, V> node, Consumer<AvlMapNode<K, V>> action) {
@@ -131,19 +357,22 @@ public class AvlTreeMap<K extends Comparable<K>, V> {
     }
 
     public void forEachNode(Consumer<AvlMapNode<K, V>> action) {
-        forEachNode(root, action);
+        if (root != null) forEachNode(root, action);
     }
 
     private ArrayList<V> toArrayList(AvlMapNode<K, V> node) {
         ArrayList<V> out = new ArrayList<>();
         if (node.getLeft() != null) out.addAll(toArrayList(node.getLeft()));
-        out.add(node.value);
+        for (int i = 0; i < node.getCount(); i++) {
+            out.add(node.getValue(i));
+        }
         if (node.getRight() != null) out.addAll(toArrayList(node.getRight()));
         return out;
     }
 
 
     public ArrayList<V> toArrayList() {
+        if (root == null) return new ArrayList<>();
         return toArrayList(root);
     }
 
@@ -156,6 +385,7 @@ public class AvlTreeMap<K extends Comparable<K>, V> {
     }
 
     public ArrayList<AvlMapNode<K, V>> toNodeArrayList() {
+        if (root == null) return new ArrayList<>();
         return toNodeArrayList(root);
     }
 
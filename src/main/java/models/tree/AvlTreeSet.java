@@ -1,6 +1,7 @@
 package models.tree;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.function.Consumer;
 
 /**
@@ -12,6 +13,44 @@ public class AvlTreeSet<E extends Comparable<E>> {
     public int size = 0;
 
 
+    public AvlTreeSet() { }
+
+    /**
+     * Builds a balanced tree from the keys at once, which is O(n) if the keys are sorted
+     * and O(n log n) otherwise. Keys that are in it more than once are added once.
+     */
+    public AvlTreeSet(Collection<E> keys) {
+        assert (keys != null) : "Keys shouldn't be null";
+
+        ArrayList<E> sorted = new ArrayList<>(keys);
+        // The sort takes a single pass when the keys are sorted already.
+        sorted.sort(null);
+
+        ArrayList<AvlSetNode<E>> unique = new ArrayList<>();
+        for (E key : sorted) {
+            if (!unique.isEmpty() && unique.get(unique.size() - 1).key.compareTo(key) == 0) continue;
+            unique.add(new AvlSetNode<>(key));
+        }
+        size = unique.size();
+        root = build(unique, 0, unique.size());
+    }
+
+    /**
+     * Links the sorted nodes from start (inclusive) to end (exclusive) with the middle node as root.
+     * Both sides get the same amount of nodes give or take one, so the heights differ by at most one.
+     */
+    private AvlSetNode<E> build(ArrayList<AvlSetNode<E>> nodes, int start, int end) {
+        if (start == end) return null;
+
+        int middle = (start + end) >>> 1;
+        AvlSetNode<E> node = nodes.get(middle);
+        node.left = build(nodes, start, middle);
+        node.right = build(nodes, middle + 1, end);
+        node.height = Math.max(getHeight(node.left), getHeight(node.right)) + 1;
+        return node;
+    }
+
+
     public int getBalance(AvlSetNode<E> node) {
         if (node == null) return 0;
         return getHeight(node.left) - getHeight(node.right);
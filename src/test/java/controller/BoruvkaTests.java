@@ -0,0 +1,58 @@
+package controller;
+
+import controllers.Boruvka;
+import controllers.DynamicSpanningTree;
+import enums.EdgeGenerator;
+import models.graph.Graph;
+import models.graph.GraphEdge;
+import models.graph.GraphNode;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class BoruvkaTests {
+
+    private Graph getTestGraph(int amountOfNodes) {
+        Random rnd = new Random();
+
+        Graph graph = new Graph();
+        while (graph.size() < amountOfNodes) {
+            graph.addIfAbsent(new GraphNode(rnd.nextInt(10_000), rnd.nextInt(10_000)));
+        }
+        graph.createEdges(EdgeGenerator.octant);
+        return graph;
+    }
+
+
+    @Test()
+    @DisplayName("No (assertion) errors on Boruvka with only the home node")
+    public void boruvkaHomeNode() {
+        Graph graph = new Graph();
+        assertEquals(0, new Boruvka(graph.size(), graph.getEdges().values()).calcTree().size());
+    }
+
+    @RepeatedTest(5)
+    @DisplayName("Boruvka makes a tree with the same distance as Kruskal")
+    public void boruvkaSameAsKruskal() {
+        Graph graph = getTestGraph(20_000);
+        ArrayList<GraphEdge> tree = new Boruvka(graph.size(), graph.getEdges().values()).calcTree();
+
+        long kruskalDistance = 0;
+        for (GraphEdge edge : new DynamicSpanningTree(graph).getTree()) {
+            kruskalDistance += edge.distance;
+        }
+        long distance = 0;
+        for (GraphEdge edge : tree) {
+            distance += edge.distance;
+        }
+
+        assertEquals(graph.size() - 1, tree.size());
+        assertEquals(kruskalDistance, distance);
+    }
+
+}
@@ -0,0 +1,53 @@
+package controller;
+
+import controllers.DynamicSpanningTree;
+import controllers.Prim;
+import models.graph.Graph;
+import models.graph.GraphEdge;
+import models.graph.GraphNode;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.RepeatedTest;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class DynamicSpanningTreeTests {
+
+    @RepeatedTest(5)
+    @DisplayName("Dynamic spanning tree stays minimal when nodes are inserted and removed")
+    public void dynamicTreeMinimal() {
+        Random rnd = new Random();
+        Graph graph = new Graph();
+        while (graph.size() < 100) {
+            graph.addIfAbsent(new GraphNode(rnd.nextInt(1000), rnd.nextInt(1000)));
+        }
+        DynamicSpanningTree tree = new DynamicSpanningTree(graph);
+
+        for (int i = 0; i < 50; i++) {
+            if (rnd.nextBoolean()) {
+                tree.remove(1 + rnd.nextInt(graph.size() - 1));
+            } else {
+                tree.insert(new GraphNode(rnd.nextInt(1000), rnd.nextInt(1000)));
+            }
+
+            int[] parents = Prim.calcTree(new Graph(graph).getDistanceMatrix());
+            long expected = 0;
+            for (int node = 1; node < parents.length; node++) {
+                expected += graph.get(node).getDrivingDistance(graph.get(parents[node]));
+            }
+            ArrayList<GraphEdge> edges = tree.getTree();
+            long distance = 0;
+            for (GraphEdge edge : edges) {
+                distance += edge.distance;
+                assertEquals(edge.node1, graph.get(edge.index1));
+                assertEquals(edge.node2, graph.get(edge.index2));
+            }
+
+            assertEquals(graph.size() - 1, edges.size());
+            assertEquals(expected, distance);
+        }
+    }
+
+}
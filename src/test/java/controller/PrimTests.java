@@ -0,0 +1,87 @@
+package controller;
+
+import controllers.Prim;
+import models.graph.DistanceMatrix;
+import models.graph.Graph;
+import models.graph.GraphNode;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PrimTests {
+
+    private Graph getTestGraph(int amountOfNodes) {
+        Random rnd = new Random();
+
+        Graph graph = new Graph();
+        while (graph.size() < amountOfNodes) {
+            graph.addIfAbsent(new GraphNode(rnd.nextInt(1000), rnd.nextInt(1000)));
+        }
+        return graph;
+    }
+
+    /**
+     * Sum of the distances from each node to its parent. Asserts that every node but the home node has a parent.
+     */
+    private long calcTreeDistance(Graph graph, int[] parents) {
+        assertEquals(-1, parents[0]);
+
+        long distance = 0;
+        for (int i = 1; i < parents.length; i++) {
+            assertTrue(parents[i] >= 0);
+            distance += graph.get(i).getDrivingDistance(graph.get(parents[i]));
+        }
+        return distance;
+    }
+
+    /**
+     * Distance of a minimum spanning tree made by trying every node outside the tree for every step.
+     */
+    private long calcReferenceTreeDistance(Graph graph) {
+        boolean[] inTree = new boolean[graph.size()];
+        inTree[0] = true;
+        long distance = 0;
+        for (int added = 1; added < graph.size(); added++) {
+            int bestDistance = Integer.MAX_VALUE;
+            int best = -1;
+            for (int i = 0; i < graph.size(); i++) {
+                if (!inTree[i]) continue;
+                for (int j = 0; j < graph.size(); j++) {
+                    if (inTree[j]) continue;
+
+                    int d = graph.get(i).getDrivingDistance(graph.get(j));
+                    if (d < bestDistance) {
+                        bestDistance = d;
+                        best = j;
+                    }
+                }
+            }
+            inTree[best] = true;
+            distance += bestDistance;
+        }
+        return distance;
+    }
+
+
+    @Test()
+    @DisplayName("No (assertion) errors on Prim with only the home node")
+    public void primHomeNode() {
+        Graph graph = new Graph();
+        assertEquals(-1, Prim.calcTree(graph.getDistanceMatrix())[0]);
+    }
+
+    @RepeatedTest(5)
+    @DisplayName("Prim over the distance matrix makes a minimum spanning tree")
+    public void primDense() {
+        Graph graph = getTestGraph(100);
+        DistanceMatrix distances = graph.getDistanceMatrix();
+
+        assertEquals(calcReferenceTreeDistance(graph), calcTreeDistance(graph, Prim.calcTree(distances)));
+    }
+
+}
@@ -0,0 +1,54 @@
+package controller;
+
+import controllers.RadixSort;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RadixSortTests {
+
+    @Test()
+    @DisplayName("No (assertion) errors on radix sort without keys")
+    public void radixSortEmpty() {
+        assertEquals(0, RadixSort.sortIndexes(new int[0]).length);
+    }
+
+    @Test()
+    @DisplayName("Radix sort keeps indexes with the same key in order")
+    public void radixSortStable() {
+        int[] keys = {3, 0, 300, 3, 0, 70_000, 300, 0};
+        assertArrayEquals(new int[]{1, 4, 7, 0, 3, 2, 6, 5}, RadixSort.sortIndexes(keys));
+    }
+
+    @RepeatedTest(5)
+    @DisplayName("Radix sort orders the indexes by key")
+    public void radixSortOrder() {
+        Random rnd = new Random();
+        int[] keys = new int[10_000];
+        for (int i = 0; i < keys.length; i++) {
+            // Mix small and big keys, so every byte is used.
+            keys[i] = rnd.nextBoolean() ? rnd.nextInt(2000) : rnd.nextInt(Integer.MAX_VALUE);
+        }
+
+        int[] sorted = RadixSort.sortIndexes(keys);
+        assertEquals(keys.length, sorted.length);
+        boolean[] seen = new boolean[keys.length];
+        for (int i = 0; i < sorted.length; i++) {
+            seen[sorted[i]] = true;
+            if (i > 0) {
+                assertTrue(keys[sorted[i - 1]] < keys[sorted[i]] ||
+                        (keys[sorted[i - 1]] == keys[sorted[i]] && sorted[i - 1] < sorted[i]));
+            }
+        }
+        for (boolean s : seen) {
+            assertTrue(s);
+        }
+    }
+
+}
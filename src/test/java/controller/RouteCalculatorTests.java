@@ -1,15 +1,22 @@
 package controller;
 
+import controllers.DynamicSpanningTree;
 import controllers.RouteCalculator;
 import enums.ComplaintType;
 import models.*;
+import models.graph.Graph;
 import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.RepeatedTest;
 import org.junit.jupiter.api.Test;
 
 import java.util.HashSet;
 import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class RouteCalculatorTests {
@@ -60,6 +67,52 @@ public class RouteCalculatorTests {
         assertEquals(5 + 2, route.size());
     }
 
+    @Test()
+    @DisplayName("Route from Kruskal doesn't run out of stack space on a schedule on a line")
+    public void kruskalRouteDeepTree() {
+        // All stops on a line make the minimum spanning tree a path, so the tree is as deep as there are stops.
+        Schedule schedule = new Schedule();
+        for (int i = 0; i < 20_000; i++) {
+            schedule.add(new Complaint(i, new Home(i, new Location(i, 500), 0, 1, false), ComplaintType.electricity, 1));
+        }
+
+        Route route = RouteCalculator.getRouteKruskal(schedule);
+        // +1 for going back to the home node, which is also on the line.
+        assertEquals(20_000 + 1, route.size());
+        assertEquals(20_000, new HashSet<>(route).size());
+    }
+
+    @Test()
+    @DisplayName("Route from Kruskal goes over all nodes after complaints are added and removed")
+    public void kruskalRouteAfterChanges() {
+        Schedule schedule = getTestSchedule(50);
+        RouteCalculator.getRouteKruskal(schedule);
+        DynamicSpanningTree tree = schedule.getSpanningTree();
+        assertNotNull(tree);
+
+        // The graph and the spanning tree of the schedule are updated for these instead of made again.
+        Schedule extra = getTestSchedule(60);
+        for (int i = 50; i < 60; i++) {
+            schedule.add(extra.get(i));
+        }
+        for (int i = 0; i < 5; i++) {
+            schedule.remove(0);
+        }
+
+        Route route = RouteCalculator.getRouteKruskal(schedule);
+        assertSame(tree, schedule.getSpanningTree());
+        assertEquals(schedule.getGraph().size() - 1, tree.getTree().size());
+        HashSet<Location> locations = new HashSet<>();
+        for (Complaint complaint : schedule) {
+            locations.add(complaint.getHome().getLocation());
+        }
+        // +2 for going from and to the home node
+        assertEquals(locations.size() + 2, route.size());
+        for (Location location : route) {
+            assertTrue(location.equals(Graph.HOMENODE) || locations.contains(new Location(location.x, location.y)));
+        }
+    }
+
 
     @Test()
     @DisplayName("No (assertion) errors on bruteforce with empty schedule.")
@@ -80,4 +133,200 @@ public class RouteCalculatorTests {
         assertEquals(5 + 2, route.size());
     }
 
+    @RepeatedTest(5)
+    @DisplayName("Route from bruteforce is as short as the one from Held-Karp")
+    public void bruteforceEqualsHeldKarp() {
+        Schedule schedule = getTestSchedule(9);
+        Route route = RouteCalculator.getRouteBruteforce(schedule);
+        assertEquals(RouteCalculator.getRouteHeldKarp(schedule).calcTotalDistance(), route.calcTotalDistance());
+    }
+
+
+    @Test()
+    @DisplayName("No (assertion) errors on Held-Karp with empty schedule.")
+    public void heldKarpEmpty() {
+        try {
+            RouteCalculator.getRouteHeldKarp(new Schedule());
+        } catch (Error ignored) {
+            assertTrue(false);
+        }
+        assertTrue(true);
+    }
+
+    @Test()
+    @DisplayName("Route from Held-Karp goes over all nodes")
+    public void heldKarpRouteNoGaps() {
+        Route route = RouteCalculator.getRouteHeldKarp(getTestSchedule(10));
+        // +2 for going from and to the home node
+        assertEquals(10 + 2, route.size());
+    }
+
+    @Test()
+    @DisplayName("Held-Karp refuses schedules with more than its maximum amount of stops")
+    public void heldKarpTooManyStops() {
+        Schedule schedule = getTestSchedule(RouteCalculator.HELD_KARP_MAX_STOPS + 1);
+        assertThrows(IllegalArgumentException.class, () -> RouteCalculator.getRouteHeldKarp(schedule));
+    }
+
+    @RepeatedTest(5)
+    @DisplayName("Route from Held-Karp isn't longer than the one from Kruskal")
+    public void heldKarpNotLongerThanKruskal() {
+        Schedule schedule = getTestSchedule(12);
+        int kruskalDistance = RouteCalculator.getRouteKruskal(schedule).calcTotalDistance();
+        int heldKarpDistance = RouteCalculator.getRouteHeldKarp(schedule).calcTotalDistance();
+        assertTrue(heldKarpDistance <= kruskalDistance);
+    }
+
+
+    @Test()
+    @DisplayName("No (assertion) errors on branch and bound with empty schedule.")
+    public void branchAndBoundEmpty() {
+        try {
+            RouteCalculator.getRouteBranchAndBound(new Schedule());
+        } catch (Error ignored) {
+            assertTrue(false);
+        }
+        assertTrue(true);
+    }
+
+    @RepeatedTest(5)
+    @DisplayName("Route from branch and bound is as short as the one from Held-Karp")
+    public void branchAndBoundEqualsHeldKarp() {
+        Schedule schedule = getTestSchedule(12);
+        Route route = RouteCalculator.getRouteBranchAndBound(schedule);
+        // +2 for going from and to the home node
+        assertEquals(12 + 2, route.size());
+        assertEquals(RouteCalculator.getRouteHeldKarp(schedule).calcTotalDistance(), route.calcTotalDistance());
+    }
+
+    @Test()
+    @DisplayName("Branch and bound stopped by the time budget still goes over all nodes")
+    public void branchAndBoundBudget() {
+        long start = System.nanoTime();
+        Route route = RouteCalculator.getRouteBranchAndBound(getTestSchedule(40), 100, new AtomicBoolean(false));
+        // +2 for going from and to the home node
+        assertEquals(40 + 2, route.size());
+        assertEquals(40 + 2, new HashSet<>(route).size() + 1);
+        // The search itself stops after 100 milliseconds, the rest is making the local search route.
+        assertTrue(System.nanoTime() - start < 5_000_000_000L);
+    }
+
+
+    @RepeatedTest(5)
+    @DisplayName("Improved route keeps all locations and isn't longer")
+    public void improveRouteNotLonger() {
+        Route route = RouteCalculator.getRouteKruskal(getTestSchedule(200));
+        RouteImprovement improvement = RouteCalculator.improveRoute(route);
+
+        assertEquals(route.size(), improvement.getRoute().size());
+        assertTrue(improvement.getRoute().containsAll(route));
+        assertEquals(route.calcTotalDistance(), improvement.getDistanceBefore());
+        assertEquals(improvement.getRoute().calcTotalDistance(), improvement.getDistanceAfter());
+        assertTrue(improvement.getDistanceAfter() <= improvement.getDistanceBefore());
+    }
+
+    @Test()
+    @DisplayName("Improved route from Kruskal goes over all nodes")
+    public void kruskalImprovedRouteNoGaps() {
+        Route route = RouteCalculator.getRouteKruskal(getTestSchedule(5), true);
+        // +2 for going from and to the home node
+        assertEquals(5 + 2, route.size());
+    }
+
+
+    @Test()
+    @DisplayName("No (assertion) errors on Christofides with empty schedule.")
+    public void christofidesEmpty() {
+        try {
+            RouteCalculator.getRouteChristofides(new Schedule());
+        } catch (Error ignored) {
+            assertTrue(false);
+        }
+        assertTrue(true);
+    }
+
+    @RepeatedTest(5)
+    @DisplayName("Route from Christofides goes over all nodes")
+    public void christofidesRouteNoGaps() {
+        Route route = RouteCalculator.getRouteChristofides(getTestSchedule(200));
+        // +2 for going from and to the home node
+        assertEquals(200 + 2, route.size());
+        assertEquals(200 + 1, new HashSet<>(route).size());
+    }
+
+    @RepeatedTest(5)
+    @DisplayName("Improved Christofides route isn't longer")
+    public void christofidesImprovedNotLonger() {
+        Schedule schedule = getTestSchedule(200);
+        int distance = RouteCalculator.getRouteChristofides(schedule).calcTotalDistance();
+        int improvedDistance = RouteCalculator.getRouteChristofides(schedule, true).calcTotalDistance();
+        assertTrue(improvedDistance <= distance);
+    }
+
+
+    @Test()
+    @DisplayName("No (assertion) errors on anytime with empty schedule.")
+    public void anytimeEmpty() {
+        try {
+            RouteCalculator.getRouteAnytime(new Schedule(), 10, new AtomicBoolean(false));
+        } catch (Error ignored) {
+            assertTrue(false);
+        }
+        assertTrue(true);
+    }
+
+    @Test()
+    @DisplayName("Route from anytime goes over all nodes and respects the time budget")
+    public void anytimeRouteNoGaps() {
+        long start = System.currentTimeMillis();
+        Route route = RouteCalculator.getRouteAnytime(getTestSchedule(100), 200, new AtomicBoolean(false));
+        long duration = System.currentTimeMillis() - start;
+
+        // +2 for going from and to the home node
+        assertEquals(100 + 2, route.size());
+        // Building the graph isn't part of the budget, so some margin is allowed.
+        assertTrue(duration < 200 + 500);
+    }
+
+    @Test()
+    @DisplayName("Cancelled anytime calculation still gives a full route")
+    public void anytimeCancelled() {
+        Route route = RouteCalculator.getRouteAnytime(getTestSchedule(100), 60_000, new AtomicBoolean(true));
+        // +2 for going from and to the home node
+        assertEquals(100 + 2, route.size());
+    }
+
+
+    @Test()
+    @DisplayName("No (assertion) errors on islands with empty schedule.")
+    public void islandsEmpty() {
+        try {
+            RouteCalculator.getRouteIslands(new Schedule(), 10, new AtomicBoolean(false));
+        } catch (Error ignored) {
+            assertTrue(false);
+        }
+        assertTrue(true);
+    }
+
+    @RepeatedTest(3)
+    @DisplayName("Route from islands goes over all nodes and isn't longer than the local search route")
+    public void islandsNotLongerThanLocalSearch() {
+        Schedule schedule = getTestSchedule(200);
+        int localSearchDistance = RouteCalculator.getRouteChristofides(schedule, true).calcTotalDistance();
+        Route route = RouteCalculator.getRouteIslands(schedule, 300, new AtomicBoolean(false));
+
+        // +2 for going from and to the home node
+        assertEquals(200 + 2, route.size());
+        assertTrue(route.calcTotalDistance() <= localSearchDistance);
+    }
+
+
+    @Test()
+    @DisplayName("Route from the space filling curve goes over all nodes")
+    public void spaceFillingCurveRouteNoGaps() {
+        Route route = RouteCalculator.getRouteSpaceFillingCurve(getTestSchedule(5));
+        // +2 for going from and to the home node
+        assertEquals(5 + 2, route.size());
+    }
+
 }
@@ -0,0 +1,76 @@
+package controller;
+
+import controllers.RoutePlanner;
+import controllers.strategies.LocalSearchStrategy;
+import enums.ComplaintType;
+import models.*;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class RoutePlannerTests {
+
+    private ArrayList<Employee> getTestEmployees(int numberOfEmployees, int numberOfComplaints) {
+        Random rnd = new Random();
+
+        ArrayList<Employee> employees = new ArrayList<>();
+        for (int i = 0; i < numberOfEmployees; i++) {
+            // Locations are unique per schedule, so every complaint is a stop in the route.
+            Schedule schedule = new Schedule();
+            HashSet<Location> prevLocations = new HashSet<>();
+            while (schedule.size() < numberOfComplaints) {
+                Location location = new Location(rnd.nextInt(1000), rnd.nextInt(1000));
+                if (!prevLocations.add(location)) continue;
+
+                schedule.add(new Complaint(schedule.size(),
+                        new Home(schedule.size(), location, 0, 1, false),
+                        ComplaintType.electricity,
+                        1));
+            }
+
+            Employee employee = new Employee(i, "Employee " + i);
+            employee.setSchedule(schedule);
+            employees.add(employee);
+        }
+
+        return employees;
+    }
+
+
+    @Test()
+    @DisplayName("Every employee gets a route over all their stops")
+    public void allRoutesPlanned() {
+        ArrayList<Employee> employees = getTestEmployees(20, 30);
+        employees.add(new Employee(20, "Employee without schedule"));
+
+        HashSet<Employee> planned = new HashSet<>();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        int count = RoutePlanner.planRoutes(employees, null, 0, executor, plannedRoute -> {
+            // +2 for going from and to the home node
+            assertEquals(30 + 2, plannedRoute.getRoute().size());
+            planned.add(plannedRoute.getEmployee());
+        });
+        executor.shutdown();
+
+        assertEquals(20, count);
+        assertEquals(20, planned.size());
+    }
+
+    @Test()
+    @DisplayName("Planned routes are handed over on the calling thread")
+    public void callbackOnCallingThread() {
+        Thread caller = Thread.currentThread();
+        RoutePlanner.planRoutes(getTestEmployees(8, 10), new LocalSearchStrategy(), 0, ForkJoinPool.commonPool(),
+                plannedRoute -> assertSame(caller, Thread.currentThread()));
+    }
+
+}
@@ -0,0 +1,85 @@
+package controller;
+
+import controllers.RouteCalculator;
+import controllers.strategies.*;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RouteStrategySelectorTests {
+
+    private final RouteStrategySelector selector = RouteStrategySelector.instance;
+
+
+    @Test()
+    @DisplayName("Small schedules get a perfect route")
+    public void smallIsExact() {
+        assertTrue(selector.select(5, 0) instanceof HeldKarpStrategy);
+        assertTrue(selector.select(HeldKarpStrategy.MAX_STOPS, 1000) instanceof HeldKarpStrategy);
+    }
+
+    @Test()
+    @DisplayName("Schedules too big for Held-Karp get branch and bound when there's enough time")
+    public void smallWithBudgetIsBranchAndBound() {
+        assertTrue(selector.select(HeldKarpStrategy.MAX_STOPS + 1, 1000) instanceof BranchAndBoundStrategy);
+        assertTrue(selector.select(BranchAndBoundStrategy.MAX_STOPS, 1000) instanceof BranchAndBoundStrategy);
+        assertTrue(selector.select(HeldKarpStrategy.MAX_STOPS + 1, 0) instanceof LocalSearchStrategy);
+    }
+
+    @Test()
+    @DisplayName("Held-Karp can handle as many stops as it can do when it's chosen")
+    public void heldKarpChosen() {
+        HeldKarpStrategy strategy = new HeldKarpStrategy();
+        assertFalse(strategy.canHandle(HeldKarpStrategy.MAX_STOPS + 1, 1000));
+        assertTrue(strategy.canHandleWhenChosen(RouteCalculator.HELD_KARP_MAX_STOPS, 1000));
+        assertFalse(strategy.canHandleWhenChosen(RouteCalculator.HELD_KARP_MAX_STOPS + 1, 1000));
+    }
+
+    @Test()
+    @DisplayName("Branch and bound can handle more stops when it's chosen")
+    public void branchAndBoundChosen() {
+        BranchAndBoundStrategy strategy = new BranchAndBoundStrategy();
+        assertFalse(strategy.canHandle(BranchAndBoundStrategy.MAX_CHOSEN_STOPS, 1000));
+        assertTrue(strategy.canHandleWhenChosen(BranchAndBoundStrategy.MAX_CHOSEN_STOPS, 1000));
+        assertFalse(strategy.canHandleWhenChosen(BranchAndBoundStrategy.MAX_CHOSEN_STOPS + 1, 1000));
+    }
+
+    @Test()
+    @DisplayName("Medium schedules get local search, with or without a time budget")
+    public void mediumIsLocalSearch() {
+        assertTrue(selector.select(30, 0) instanceof LocalSearchStrategy);
+        assertTrue(selector.select(30, 1000) instanceof AnytimeStrategy);
+    }
+
+    @Test()
+    @DisplayName("Big schedules with enough time get islands on all cores")
+    public void bigIsIslands() {
+        assertTrue(selector.select(IslandStrategy.MIN_STOPS, 1000) instanceof IslandStrategy);
+        assertTrue(selector.select(IslandStrategy.MIN_STOPS, 0) instanceof LocalSearchStrategy);
+    }
+
+    @Test()
+    @DisplayName("Huge schedules get a space filling curve")
+    public void hugeIsSpaceFillingCurve() {
+        assertTrue(selector.select(LocalSearchStrategy.MAX_STOPS + 1, 1000) instanceof SpaceFillingCurveStrategy);
+    }
+
+    @Test()
+    @DisplayName("Selected strategy can always handle the schedule")
+    public void selectedCanHandle() {
+        for (int stops = 0; stops < 100_000; stops += 7) {
+            assertTrue(selector.select(stops, 0).canHandle(stops, 0));
+            assertTrue(selector.select(stops, 1000).canHandle(stops, 1000));
+        }
+    }
+
+    @Test()
+    @DisplayName("Empty selector doesn't select anything")
+    public void emptySelector() {
+        assertNull(new RouteStrategySelector().select(5, 0));
+    }
+
+}
@@ -0,0 +1,113 @@
+package controller;
+
+import controllers.ConcurrentUnionFind;
+import controllers.IndexUnionFind;
+import controllers.UnionFind;
+import models.DisjointSet;
+import models.graph.Graph;
+import models.graph.GraphNode;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class UnionFindTests {
+
+    @Test()
+    @DisplayName("Union only raises the rank of the new root, and lower ranks go under higher ranks")
+    public void unionRank() {
+        Graph graph = new Graph();
+        graph.add(new GraphNode(0, 0));
+        graph.add(new GraphNode(1, 0));
+        UnionFind unionFind = new UnionFind(graph);
+        DisjointSet set0 = unionFind.find(0);
+        DisjointSet set1 = unionFind.find(1);
+        DisjointSet set2 = unionFind.find(2);
+
+        unionFind.union(set0, set1);
+        DisjointSet root = unionFind.find(0);
+        assertSame(root, unionFind.find(1));
+        assertEquals(1, root.getRank());
+        assertEquals(0, (root == set0 ? set1 : set0).getRank());
+
+        unionFind.union(set2, set0);
+        assertSame(root, unionFind.find(2));
+        assertEquals(1, root.getRank());
+    }
+
+    @RepeatedTest(5)
+    @DisplayName("Index union find has the same sets as a labeling of the nodes")
+    public void indexUnionFindSets() {
+        Random rnd = new Random();
+        int size = 1000;
+        IndexUnionFind unionFind = new IndexUnionFind(size);
+        // The set label of each node, relabeled on every union.
+        int[] labels = new int[size];
+        for (int i = 0; i < size; i++) {
+            labels[i] = i;
+        }
+
+        for (int i = 0; i < 800; i++) {
+            int node1 = rnd.nextInt(size);
+            int node2 = rnd.nextInt(size);
+            int label1 = labels[node1];
+            int label2 = labels[node2];
+
+            assertEquals(label1 != label2, unionFind.union(node1, node2));
+            for (int node = 0; node < size; node++) {
+                if (labels[node] == label2) labels[node] = label1;
+            }
+        }
+
+        for (int i = 0; i < 2000; i++) {
+            int node1 = rnd.nextInt(size);
+            int node2 = rnd.nextInt(size);
+            assertEquals(labels[node1] == labels[node2], unionFind.find(node1) == unionFind.find(node2));
+        }
+
+        unionFind.reset();
+        assertTrue(unionFind.union(0, 1));
+        assertFalse(unionFind.union(1, 0));
+    }
+
+    @RepeatedTest(5)
+    @DisplayName("Concurrent union find has the same sets as the index union find when used by many threads")
+    public void concurrentUnionFindSets() {
+        Random rnd = new Random();
+        int size = 10_000;
+        int[] nodes1 = new int[size];
+        int[] nodes2 = new int[size];
+        IndexUnionFind expected = new IndexUnionFind(size);
+        int expectedUnions = 0;
+        for (int i = 0; i < size; i++) {
+            nodes1[i] = rnd.nextInt(size);
+            nodes2[i] = rnd.nextInt(size);
+            if (expected.union(nodes1[i], nodes2[i])) expectedUnions++;
+        }
+
+        ConcurrentUnionFind unionFind = new ConcurrentUnionFind(size);
+        AtomicInteger unions = new AtomicInteger();
+        IntStream.range(0, size).parallel().forEach(i -> {
+            if (unionFind.union(nodes1[i], nodes2[i])) unions.incrementAndGet();
+        });
+
+        // Every union that merged two sets is counted once, no matter which thread did it.
+        assertEquals(expectedUnions, unions.get());
+        for (int i = 0; i < 2000; i++) {
+            int node1 = rnd.nextInt(size);
+            int node2 = rnd.nextInt(size);
+            boolean same = expected.find(node1) == expected.find(node2);
+            assertEquals(same, unionFind.find(node1) == unionFind.find(node2));
+            assertEquals(same, unionFind.isSameSet(node1, node2));
+        }
+    }
+
+}
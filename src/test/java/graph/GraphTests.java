@@ -1,10 +1,16 @@
 package graph;
 
+import enums.EdgeGenerator;
+import models.graph.CsrGraph;
+import models.graph.DistanceMatrix;
 import models.graph.Graph;
+import models.graph.GraphBuilder;
+import models.graph.GraphEdge;
 import models.graph.GraphNode;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Test;
 
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -12,6 +18,10 @@ import java.util.HashSet;
 import java.util.Random;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class GraphTests {
 
@@ -53,8 +63,71 @@ public class GraphTests {
         assertEquals(graph.size(), linkedNodes.size());
     }
 
+    @RepeatedTest(5)
+    @DisplayName("Octant edge creation connects all nodes")
+    public void createOctantEdgesNoGaps() {
+        fill(200);
+        graph.createEdges(EdgeGenerator.octant);
+
+        HashSet<GraphNode> linkedNodes = new HashSet<>();
+        createEdgesNoGapsLoop(graph.get(0), graph.getNodeConnections(), linkedNodes);
+        assertEquals(new HashSet<>(graph).size(), linkedNodes.size());
+    }
+
+    @RepeatedTest(5)
+    @DisplayName("Octant edges go to the closest node in each octant, ties won by the lowest key")
+    public void createOctantEdgesTies() {
+        // Nodes on a small grid have a lot of closest nodes at the same distance.
+        Random rnd = new Random();
+        while (graph.size() < 100) {
+            graph.addIfAbsent(new GraphNode(490 + rnd.nextInt(20), 490 + rnd.nextInt(20)));
+        }
+        graph.createEdges(EdgeGenerator.octant);
+
+        HashSet<String> expected = new HashSet<>();
+        for (GraphNode node : graph) {
+            for (int octant = 0; octant < 4; octant++) {
+                GraphNode closest = null;
+                for (GraphNode other : graph) {
+                    int deltaX = other.x - node.x;
+                    int deltaY = other.y - node.y;
+                    boolean inOctant = switch (octant) {
+                        case 0 -> deltaX >= 0 && deltaY >= deltaX;
+                        case 1 -> deltaY >= 0 && deltaX >= deltaY;
+                        case 2 -> deltaY <= 0 && deltaX >= -deltaY;
+                        default -> deltaX >= 0 && -deltaY >= deltaX;
+                    };
+                    if (!inOctant || other.equals(node)) continue;
+
+                    if (closest == null || node.getDrivingDistance(other) < node.getDrivingDistance(closest) ||
+                            (node.getDrivingDistance(other) == node.getDrivingDistance(closest) &&
+                                    other.key < closest.key)) {
+                        closest = other;
+                    }
+                }
+                if (closest != null) {
+                    expected.add(Math.min(node.key, closest.key) + "-" + Math.max(node.key, closest.key));
+                }
+            }
+        }
+        assertEquals(expected, getEdgeLocations(graph));
+    }
+
+    /**
+     * The edges of the graph by the keys of their nodes, which don't depend on the node indexes.
+     */
+    private HashSet<String> getEdgeLocations(Graph graph) {
+        HashSet<String> locations = new HashSet<>();
+        for (GraphEdge edge : graph.getEdges().values()) {
+            long key1 = Math.min(edge.node1.key, edge.node2.key);
+            long key2 = Math.max(edge.node1.key, edge.node2.key);
+            locations.add(key1 + "-" + key2);
+        }
+        return locations;
+    }
+
     /**
-     * Recursive code of the createEdgesNoGaps test.
+     * Recursive code of the createEdgesNoGaps tests.
      */
     private void createEdgesNoGapsLoop(GraphNode node, HashMap<GraphNode, ArrayList<GraphNode>> connections,
                                        HashSet<GraphNode> linkedNodes) {
@@ -67,12 +140,369 @@ public class GraphTests {
     }
 
 
+    @RepeatedTest(5)
+    @DisplayName("Graph edges go to the closest node in each direction")
+    public void createEdgesClosest() {
+        fill(300);
+        graph.createEdges();
+
+        for (int i = 0; i < graph.size(); i++) {
+            for (int closest : findClosestPerDirection(i)) {
+                if (closest == -1) continue;
+                assertTrue(graph.getEdges().containsKey(GraphEdge.createKey(i, closest)));
+            }
+        }
+    }
+
+    @RepeatedTest(5)
+    @DisplayName("Graph edges go to the closest node in each direction for nodes on lines")
+    public void createEdgesClosestOnLines() {
+        Random rnd = new Random();
+        // A diagonal and a horizontal line leave directions without nodes for most nodes.
+        for (int i = 0; i < 100; i++) {
+            int position = rnd.nextInt(1000);
+            graph.add(new GraphNode(position, position));
+            graph.add(new GraphNode(rnd.nextInt(1000), 200));
+        }
+        graph.createEdges();
+
+        for (int i = 0; i < graph.size(); i++) {
+            for (int closest : findClosestPerDirection(i)) {
+                if (closest == -1) continue;
+                assertTrue(graph.getEdges().containsKey(GraphEdge.createKey(i, closest)));
+            }
+        }
+    }
+
+    /**
+     * The index of the closest node left, right, top and bottom from the node at the given index,
+     * found by checking every node. -1 for a direction without nodes. Ties are won like in the graph.
+     */
+    private int[] findClosestPerDirection(int index) {
+        GraphNode node = graph.get(index);
+        int[] closest = {-1, -1, -1, -1};
+        int[] closestDistances = {Integer.MAX_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE};
+        for (int i = 0; i < graph.size(); i++) {
+            GraphNode other = graph.get(i);
+            if (other.equals(node)) continue;
+
+            int deltaX = node.getDeltaX(other);
+            int deltaY = node.getDeltaY(other);
+            int direction;
+            if (Math.abs(deltaX) > Math.abs(deltaY)) {
+                direction = deltaX < 0 ? 0 : 1;
+            } else {
+                direction = deltaY < 0 ? 2 : 3;
+            }
+
+            // Ties are won by the lowest key. Strictly lower, so nodes at the same location go to the lowest index.
+            int distance = node.getDrivingDistance(other);
+            if (distance < closestDistances[direction] || (distance == closestDistances[direction] &&
+                    other.key < graph.get(closest[direction]).key)) {
+                closestDistances[direction] = distance;
+                closest[direction] = i;
+            }
+        }
+        return closest;
+    }
+
+
+    @RepeatedTest(5)
+    @DisplayName("Graph builder adds every location once, in the order they were added")
+    public void graphBuilderUnique() {
+        Random rnd = new Random();
+        ArrayList<GraphNode> locations = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            locations.add(new GraphNode(rnd.nextInt(50), rnd.nextInt(50)));
+        }
+        GraphBuilder builder = new GraphBuilder().addAll(locations.iterator());
+        for (GraphNode location : locations) {
+            graph.addIfAbsent(location);
+        }
+
+        Graph built = builder.build();
+        DistanceMatrix matrix = builder.buildDistanceMatrix();
+        int[] xs = builder.getXs();
+        int[] ys = builder.getYs();
+        assertEquals(graph, built);
+        assertEquals(graph.size(), builder.size());
+        assertEquals(graph.size(), matrix.getSize());
+        for (int i = 0; i < built.size(); i++) {
+            assertEquals(built.get(i).x, xs[i]);
+            assertEquals(built.get(i).y, ys[i]);
+            assertEquals(built.get(0).getDrivingDistance(built.get(i)), matrix.get(0, i));
+        }
+        assertEquals(built.indexOf(locations.get(0)), builder.add(locations.get(0)));
+    }
+
+    @RepeatedTest(5)
+    @DisplayName("Graph from the builder looks up nodes and distances like a graph made node by node")
+    public void graphBuilderRegistry() {
+        Random rnd = new Random();
+        GraphBuilder builder = new GraphBuilder();
+        while (builder.size() < 100) {
+            builder.add(rnd.nextInt(1000), rnd.nextInt(1000));
+        }
+        Graph built = builder.build();
+        for (int i = 0; i < built.size(); i++) {
+            graph.addIfAbsent(built.get(i));
+        }
+
+        DistanceMatrix matrix = built.getDistanceMatrix();
+        DistanceMatrix expected = graph.getDistanceMatrix();
+        for (int i = 0; i < built.size(); i++) {
+            assertEquals(i, built.indexOf(built.get(i)));
+            for (int j = 0; j < built.size(); j++) {
+                assertEquals(expected.get(i, j), matrix.get(i, j));
+            }
+        }
+
+        // The graph keeps the registry, so locations added to the builder afterwards aren't in the graph.
+        GraphNode extra = new GraphNode(2000, 2000);
+        assertEquals(100, builder.add(extra));
+        assertEquals(-1, built.indexOf(extra));
+        assertEquals(101, builder.build().size());
+    }
+
+    @RepeatedTest(5)
+    @DisplayName("Inserting and removing nodes keeps the same edges as making them again")
+    public void insertRemoveNodeEdges() {
+        insertRemoveNodeEdgesLoop(100, 1_000_000, 50);
+    }
+
+    @RepeatedTest(20)
+    @DisplayName("Inserting and removing nodes on a small grid keeps the same edges, even with ties")
+    public void insertRemoveNodeEdgesTies() {
+        // A lot of nodes have closest nodes at the same distance, which removing nodes gives other indexes.
+        insertRemoveNodeEdgesLoop(40, 40, 10);
+    }
+
+    /**
+     * Code of the insertRemoveNodeEdges tests. Starts with the given amount of nodes with coordinates below range,
+     * then inserts or removes a node the given amount of times, comparing the edges after each change.
+     */
+    private void insertRemoveNodeEdgesLoop(int amountOfNodes, int range, int changes) {
+        Random rnd = new Random();
+        for (EdgeGenerator generator : EdgeGenerator.values()) {
+            graph = new Graph();
+            while (graph.size() < amountOfNodes) {
+                graph.addIfAbsent(new GraphNode(rnd.nextInt(range), rnd.nextInt(range)));
+            }
+            graph.createEdges(generator);
+
+            for (int i = 0; i < changes; i++) {
+                if (rnd.nextBoolean()) {
+                    graph.removeNode(1 + rnd.nextInt(graph.size() - 1));
+                } else {
+                    graph.insertNode(new GraphNode(rnd.nextInt(range), rnd.nextInt(range)));
+                }
+
+                Graph expected = new Graph(graph);
+                expected.createEdges(generator);
+                HashSet<Long> expectedKeys = new HashSet<>();
+                for (GraphEdge edge : expected.getEdges().values()) {
+                    expectedKeys.add(edge.key);
+                }
+                HashSet<Long> keys = new HashSet<>();
+                for (GraphEdge edge : graph.getEdges().values()) {
+                    keys.add(edge.key);
+                    assertEquals(edge.node1, graph.get(edge.index1));
+                    assertEquals(edge.node2, graph.get(edge.index2));
+                }
+                assertEquals(expectedKeys, keys);
+            }
+        }
+    }
+
+    @RepeatedTest(5)
+    @DisplayName("Inserting nodes around a small graph keeps the same edges as making them again")
+    public void insertNodeOutsideEdges() {
+        // The first nodes are in a small area, so most inserted nodes are outside the area the nodes were in.
+        Random rnd = new Random();
+        for (EdgeGenerator generator : EdgeGenerator.values()) {
+            graph = new Graph();
+            while (graph.size() < 10) {
+                graph.addIfAbsent(new GraphNode(rnd.nextInt(10_000), rnd.nextInt(10_000)));
+            }
+            graph.createEdges(generator);
+
+            for (int i = 0; i < 200; i++) {
+                if (rnd.nextInt(4) == 0) {
+                    graph.removeNode(1 + rnd.nextInt(graph.size() - 1));
+                } else {
+                    graph.insertNode(new GraphNode(rnd.nextInt(1_000_000), rnd.nextInt(1_000_000)));
+                }
+            }
+
+            Graph expected = new Graph(graph);
+            expected.createEdges(generator);
+            HashSet<Long> expectedKeys = new HashSet<>();
+            for (GraphEdge edge : expected.getEdges().values()) {
+                expectedKeys.add(edge.key);
+            }
+            HashSet<Long> keys = new HashSet<>();
+            for (GraphEdge edge : graph.getEdges().values()) {
+                keys.add(edge.key);
+            }
+            assertEquals(expectedKeys, keys);
+            for (int i = 0; i < graph.size(); i++) {
+                assertEquals(i, graph.indexOf(graph.get(i)));
+            }
+        }
+    }
+
+    @RepeatedTest(5)
+    @DisplayName("CSR graph has the same neighbours and distances as the edges")
+    public void csrGraphNeighbours() {
+        // Connections are by node, so every location should only be in the graph once.
+        Random rnd = new Random();
+        while (graph.size() < 200) {
+            graph.addIfAbsent(new GraphNode(rnd.nextInt(1000), rnd.nextInt(1000)));
+        }
+        graph.createEdges();
+        CsrGraph csrGraph = graph.getCsrGraph();
+        HashMap<GraphNode, ArrayList<GraphNode>> connections = graph.getNodeConnections();
+
+        assertEquals(graph.size(), csrGraph.getSize());
+        assertEquals(graph.getEdges().size(), csrGraph.getEdgeCount());
+        for (int i = 0; i < graph.size(); i++) {
+            HashSet<GraphNode> neighbours = new HashSet<>();
+            for (int position = csrGraph.getStart(i); position < csrGraph.getEnd(i); position++) {
+                GraphNode neighbour = graph.get(csrGraph.getTarget(position));
+                assertEquals(graph.get(i).getDrivingDistance(neighbour), csrGraph.getWeight(position));
+                neighbours.add(neighbour);
+            }
+
+            assertEquals(csrGraph.getDegree(i), neighbours.size());
+            assertEquals(new HashSet<>(connections.getOrDefault(graph.get(i), new ArrayList<>())), neighbours);
+        }
+        assertSame(csrGraph, graph.getCsrGraph());
+    }
+
+    @RepeatedTest(5)
+    @DisplayName("Distance matrix has the driving distances between the graph nodes")
+    public void distanceMatrixDistances() {
+        fill(50);
+        DistanceMatrix matrix = graph.getDistanceMatrix();
+
+        assertEquals(graph.size(), matrix.getSize());
+        for (int i = 0; i < graph.size(); i++) {
+            for (int j = 0; j < graph.size(); j++) {
+                assertEquals(graph.get(i).getDrivingDistance(graph.get(j)), matrix.get(i, j));
+            }
+        }
+    }
+
+    @RepeatedTest(5)
+    @DisplayName("Distance matrix is only made again when nodes change")
+    public void distanceMatrixCache() {
+        fill(20);
+        DistanceMatrix matrix = graph.getDistanceMatrix();
+        assertSame(matrix, graph.getDistanceMatrix());
+
+        graph.add(new GraphNode(0, 0));
+        DistanceMatrix newMatrix = graph.getDistanceMatrix();
+        assertNotSame(matrix, newMatrix);
+        assertEquals(graph.size(), newMatrix.getSize());
+    }
+
+    @RepeatedTest(5)
+    @DisplayName("Distance matrix is changed by insertNode and removeNode instead of made again")
+    public void distanceMatrixInsertRemove() {
+        Random rnd = new Random();
+        fill(20);
+        graph.createEdges(EdgeGenerator.octant);
+        DistanceMatrix matrix = graph.getDistanceMatrix();
+        for (int i = 0; i < 50; i++) {
+            if (rnd.nextBoolean()) {
+                graph.removeNode(1 + rnd.nextInt(graph.size() - 1));
+            } else {
+                graph.insertNode(new GraphNode(rnd.nextInt(1000), rnd.nextInt(1000)));
+            }
+        }
+
+        assertSame(matrix, graph.getDistanceMatrix());
+        assertEquals(graph.size(), matrix.getSize());
+        for (int i = 0; i < graph.size(); i++) {
+            for (int j = 0; j < graph.size(); j++) {
+                assertEquals(graph.get(i).getDrivingDistance(graph.get(j)), matrix.get(i, j));
+            }
+        }
+    }
+
+    @RepeatedTest(5)
+    @DisplayName("Total distance goes from the home node over every node and back")
+    public void totalDistance() {
+        fill(50);
+        int expected = 0;
+        for (int i = 1; i < graph.size(); i++) {
+            expected += graph.get(i - 1).getDrivingDistance(graph.get(i));
+        }
+        expected += graph.get(graph.size() - 1).getDrivingDistance(Graph.HOMENODE);
+        assertEquals(expected, graph.calcTotalDistance());
+        // The same sum once the distance matrix is made.
+        graph.getDistanceMatrix();
+        assertEquals(expected, graph.calcTotalDistance());
+
+        // Without the home node as first node, the route still starts and ends at the home node.
+        GraphNode first = new GraphNode(0, 0);
+        expected += Graph.HOMENODE.getDrivingDistance(first) - graph.get(1).getDrivingDistance(Graph.HOMENODE) +
+                first.getDrivingDistance(graph.get(1));
+        graph.set(0, first);
+        assertEquals(expected, graph.calcTotalDistance());
+        graph.getDistanceMatrix();
+        assertEquals(expected, graph.calcTotalDistance());
+    }
+
+    @Test()
+    @DisplayName("Nodes at different locations never have the same key")
+    public void nodeKeysUnique() {
+        // These used to get the same id, since their coordinates were merged as strings.
+        assertNotEquals(new GraphNode(1, 23), new GraphNode(12, 3));
+        assertNotEquals(new GraphNode(-1, 0).key, new GraphNode(0, -1).key);
+        assertEquals(new GraphNode(12, 3), new GraphNode(12, 3));
+
+        graph.addIfAbsent(new GraphNode(1, 23));
+        graph.addIfAbsent(new GraphNode(12, 3));
+        assertEquals(3, graph.size());
+    }
+
+    @RepeatedTest(5)
+    @DisplayName("Node registry has the first index of each node")
+    public void nodeRegistryIndexes() {
+        Random rnd = new Random();
+        for (int i = 0; i < 1000; i++) {
+            GraphNode node = new GraphNode(rnd.nextInt(50), rnd.nextInt(50));
+            int index = graph.addIfAbsent(node);
+            assertEquals(node, graph.get(index));
+        }
+        // Duplicates are only possible with add.
+        graph.add(new GraphNode(Graph.HOMENODE));
+
+        assertEquals(graph.size() - 1, new HashSet<>(graph).size());
+        for (int i = 0; i < graph.size(); i++) {
+            int expected = 0;
+            while (!graph.get(expected).equals(graph.get(i))) expected++;
+            assertEquals(expected, graph.indexOf(graph.get(i)));
+        }
+        assertEquals(-1, graph.indexOf(new GraphNode(-1, -1)));
+    }
+
+
     @RepeatedTest(3)
     @DisplayName("Create edges for 100.000 nodes")
     public void createEdges100_000Nodes() {
         fill(100_000);
     }
 
+    @RepeatedTest(3)
+    @DisplayName("Generate edges between 100.000 nodes")
+    public void generateEdges100_000Nodes() {
+        fill(100_000);
+        graph.createEdges();
+        assertTrue(graph.getEdges().size() >= graph.size() - 1);
+    }
+
     @RepeatedTest(3)
     @DisplayName("Create edges for 1.000.000 nodes")
     public void createEdges1_000_000Nodes() {
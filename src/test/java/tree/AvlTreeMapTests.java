@@ -1,14 +1,21 @@
 package tree;
 
+import models.tree.AvlMapNode;
 import models.tree.AvlTreeMap;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class AvlTreeMapTests {
@@ -61,6 +68,115 @@ class AvlTreeMapTests {
         assertTrue(max.get() <= 1);
     }
 
+    @RepeatedTest(5)
+    @DisplayName("Is the tree balanced after removing nodes?")
+    public void removeBalanced() {
+        AvlTreeMap<Integer, Integer> intMap = new AvlTreeMap<>();
+        ArrayList<Integer> keys = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            keys.add(i);
+            intMap.insert(i, i * 2);
+        }
+        Collections.shuffle(keys);
+
+        for (int i = 0; i < 5_000; i++) {
+            assertEquals(keys.get(i) * 2, intMap.remove(keys.get(i)));
+        }
+        assertNull(intMap.remove(keys.get(0)));
+        assertEquals(5_000, intMap.getSize());
+
+        ArrayList<Integer> left = new ArrayList<>(keys.subList(5_000, keys.size()));
+        Collections.sort(left);
+        ArrayList<Integer> found = new ArrayList<>();
+        intMap.forEachNode(node -> {
+            found.add(node.key);
+            assertTrue(Math.abs(intMap.getBalance(node)) <= 1);
+        });
+        assertEquals(left, found);
+
+        for (int key : left) {
+            intMap.remove(key);
+        }
+        assertEquals(0, intMap.getSize());
+        assertNull(intMap.getRoot());
+    }
+
+    @Test()
+    @DisplayName("Floor, ceiling and range queries")
+    public void floorCeilingSubMap() {
+        AvlTreeMap<Integer, Integer> intMap = new AvlTreeMap<>();
+        for (int i = 0; i <= 100; i += 10) {
+            intMap.insert(i, i);
+        }
+
+        assertEquals(20, intMap.floorEntry(25).key);
+        assertEquals(30, intMap.floorEntry(30).key);
+        assertNull(intMap.floorEntry(-1));
+        assertEquals(30, intMap.ceilingEntry(25).key);
+        assertEquals(30, intMap.ceilingEntry(30).key);
+        assertNull(intMap.ceilingEntry(101));
+
+        ArrayList<Integer> range = new ArrayList<>();
+        intMap.subMap(20, 60).forEach(node -> range.add(node.key));
+        assertEquals(List.of(20, 30, 40, 50), range);
+        assertTrue(intMap.subMap(41, 49).isEmpty());
+    }
+
+    @RepeatedTest(5)
+    @DisplayName("Values with the same key are all kept")
+    public void duplicateKeys() {
+        AvlTreeMap<Integer, Integer> intMap = new AvlTreeMap<>();
+        for (int i = 0; i < 10_000; i++) {
+            intMap.insert(i % 10, i);
+        }
+        assertEquals(10_000, intMap.getSize());
+        assertEquals(10_000, intMap.toArrayList().size());
+        AtomicInteger nodes = new AtomicInteger();
+        intMap.forEachNode(node -> {
+            nodes.incrementAndGet();
+            assertEquals(1_000, node.getCount());
+        });
+        assertEquals(10, nodes.get());
+
+        // Values come out in the order they were added.
+        assertEquals(3, intMap.find(3));
+        assertTrue(intMap.remove(3, 3));
+        assertEquals(13, intMap.find(3));
+        assertTrue(intMap.remove(3, 503));
+        assertFalse(intMap.remove(3, 503));
+        assertFalse(intMap.remove(3, 4));
+        assertEquals(9_998, intMap.getSize());
+
+        for (int i = 0; i < 10_000; i++) {
+            if (i != 3 && i != 503) assertTrue(intMap.remove(i % 10, i));
+        }
+        assertEquals(0, intMap.getSize());
+        assertNull(intMap.getRoot());
+    }
+
+    @RepeatedTest(5)
+    @DisplayName("Is a bulk loaded tree balanced and complete?")
+    public void bulkLoad() {
+        ArrayList<AvlMapNode<Integer, Integer>> nodes = new ArrayList<>();
+        for (int i = 0; i < 100_000; i++) {
+            nodes.add(new AvlMapNode<>((int) (Math.random() * 1000), i));
+        }
+        AvlTreeMap<Integer, Integer> intMap = new AvlTreeMap<>(nodes);
+        AvlTreeMap<Integer, Integer> inserted = new AvlTreeMap<>();
+        inserted.insert(nodes);
+
+        assertEquals(nodes.size(), intMap.getSize());
+        assertEquals(inserted.toArrayList(), intMap.toArrayList());
+        intMap.forEachNode(node -> {
+            int leftHeight = node.getLeft() == null ? 0 : node.getLeft().getHeight();
+            int rightHeight = node.getRight() == null ? 0 : node.getRight().getHeight();
+            assertEquals(Math.max(leftHeight, rightHeight) + 1, node.getHeight());
+            assertTrue(Math.abs(intMap.getBalance(node)) <= 1);
+        });
+
+        assertTrue(new AvlTreeMap<Integer, Integer>(new ArrayList<>()).toArrayList().isEmpty());
+    }
+
 
     @RepeatedTest(3)
     @DisplayName("Insert 1.000 nodes")
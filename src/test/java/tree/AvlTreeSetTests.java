@@ -6,6 +6,8 @@ import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.RepeatedTest;
 
+import java.util.ArrayList;
+import java.util.TreeSet;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -62,6 +64,27 @@ class AvlTreeSetTests {
     }
 
 
+    @RepeatedTest(5)
+    @DisplayName("Is a bulk loaded tree balanced and complete?")
+    public void bulkLoad() {
+        ArrayList<Integer> keys = new ArrayList<>();
+        for (int i = 0; i < 100_000; i++) {
+            keys.add((int) (Math.random() * 50_000));
+        }
+        AvlTreeSet<Integer> intSet = new AvlTreeSet<>(keys);
+        TreeSet<Integer> expected = new TreeSet<>(keys);
+
+        assertEquals(expected.size(), intSet.size);
+        assertEquals(new ArrayList<>(expected), intSet.toArrayList());
+        intSet.forEachNode(node -> {
+            int leftHeight = node.left == null ? 0 : node.left.height;
+            int rightHeight = node.right == null ? 0 : node.right.height;
+            assertEquals(Math.max(leftHeight, rightHeight) + 1, node.height);
+            assertTrue(Math.abs(intSet.getBalance(node)) <= 1);
+        });
+    }
+
+
     @RepeatedTest(3)
     @DisplayName("Insert 1.000 nodes")
     public void insert1_000Nodes() {